@@ -6,13 +6,13 @@ import AllExpenses from './AllExpenses';
 import RoommatesList from './RoommatesList';
 import AddExpenseForm from './components/AddExpenseForm';
 import SettleUpForm from './components/SettleUpForm';
-import { Roommate, User, SettlementDTO, ExpenseDTO } from './types/shared';
+import { Roommate, User, SettlementDTO, ExpenseDTO, ExpenseParticipantDTO } from './types/shared';
 import ProtectedRoute from '../components/ProtectedRoute';
 import { logout } from '../services/authService';
 import { useRouter } from 'next/navigation';
-import { getRoommates } from '../services/roommateService';
-import { addExpense, getUserExpenses, getUserBalances } from '../services/expenseService';
-import { getCurrentUser } from '../services/userService';
+import { addExpense, getUserExpenses, getUserExpensesPage, getUserBalances } from '../services/expenseService';
+import { getUserExpenseParticipants } from '../services/expenseParticipantService';
+import { getDashboard } from '../services/dashboardService';
 import { createSettlement } from '../services/settlementService';
 import { motion } from 'framer-motion';
 
@@ -23,6 +23,7 @@ export default function Dashboard() {
   const [showSettleUpForm, setShowSettleUpForm] = useState(false);
   const [balances, setBalances] = useState<{ [key: number]: number }>({});
   const [expenses, setExpenses] = useState<ExpenseDTO[]>([]);
+  const [participants, setParticipants] = useState<ExpenseParticipantDTO[]>([]);
   const [roommates, setRoommates] = useState<Roommate[]>([]);
   const [currentUser, setCurrentUser] = useState<User | null>(null);
   const [balanceSummary, setBalanceSummary] = useState({
@@ -53,25 +54,43 @@ export default function Dashboard() {
 
   useEffect(() => {
     console.log('Dashboard page mounted');
-    fetchCurrentUser();
-    fetchRoommates();
-    fetchExpenses();
-    fetchBalances();
+    fetchDashboard();
   }, []);
 
   useEffect(() => {
     calculateBalanceSummary();
   }, [balances, roommates, calculateBalanceSummary]);
 
-  const fetchCurrentUser = async () => {
+  const fetchDashboard = async () => {
     try {
-      const user = await getCurrentUser();
-      setCurrentUser(user);
+      const dashboard = await getDashboard();
+      setCurrentUser(dashboard.user);
+      setRoommates(dashboard.roommates);
+      setExpenses(dashboard.expenses);
+      setParticipants(dashboard.participants);
+      setBalances(dashboard.balances);
+      // The dashboard carries only the newest page of expenses; follow the cursor for the rest
+      if (dashboard.nextCursor) {
+        await fetchRemainingExpenses(dashboard.expenses, dashboard.nextCursor);
+      }
     } catch (error) {
-      console.error('Error fetching current user:', error);
+      console.error('Error fetching dashboard:', error);
     }
   };
 
+  const fetchRemainingExpenses = async (firstPage: ExpenseDTO[], cursor: string) => {
+    let allExpenses = firstPage;
+    let nextCursor: string | null = cursor;
+    while (nextCursor) {
+      const page = await getUserExpensesPage(nextCursor);
+      allExpenses = [...allExpenses, ...page.expenses];
+      nextCursor = page.nextCursor;
+    }
+    setExpenses(allExpenses);
+    // Participant rows page on a cursor of their own, so the full list is loaded in one request
+    setParticipants(await getUserExpenseParticipants());
+  };
+
   const fetchBalances = async () => {
     try {
       const fetchedBalances = await getUserBalances();
@@ -81,19 +100,14 @@ export default function Dashboard() {
     }
   };
 
-  const fetchRoommates = async () => {
-    try {
-      const fetchedRoommates = await getRoommates();
-      setRoommates(fetchedRoommates);
-    } catch (error) {
-      console.error('Error fetching roommates:', error);
-    }
-  };
-
   const fetchExpenses = async () => {
     try {
-      const fetchedExpenses = await getUserExpenses();
+      const [fetchedExpenses, fetchedParticipants] = await Promise.all([
+        getUserExpenses(),
+        getUserExpenseParticipants()
+      ]);
       setExpenses(fetchedExpenses);
+      setParticipants(fetchedParticipants);
     } catch (error) {
       console.error('Error fetching expenses:', error);
     }
@@ -47,4 +47,18 @@ export interface ExpenseParticipantDTO {
   expenseId: number;
   participantId: number;
   shareAmount: number;
-}
\ No newline at end of file
+}
+export interface ExpensePage {
+  expenses: ExpenseDTO[];
+  nextCursor: string | null;
+}
+
+export interface DashboardDTO {
+  user: User;
+  roommates: Roommate[];
+  expenses: ExpenseDTO[];
+  nextCursor: string | null;
+  participants: ExpenseParticipantDTO[];
+  balances: { [key: number]: number };
+  settlementSummary: { totalBalance: number; totalOwed: number; totalOwes: number };
+}
@@ -0,0 +1,8 @@
+import api from './api';
+import { DashboardDTO } from '../dashboard/types/shared';
+
+// User, roommates, recent expenses and balances in a single request
+export const getDashboard = async (): Promise<DashboardDTO> => {
+  const response = await api.get<DashboardDTO>('/dashboard');
+  return response.data;
+};
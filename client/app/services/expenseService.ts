@@ -1,14 +1,28 @@
 import api from './api';
-import { ExpenseDTO } from '../dashboard/types/shared';
+import { ExpenseDTO, ExpensePage } from '../dashboard/types/shared';
 
 export const addExpense = async (expense: ExpenseDTO): Promise<ExpenseDTO> => {
   const response = await api.post<ExpenseDTO>('/expenses', expense);
   return response.data;
 };
 
+// Every expense, newest first; the listing is paged, so this follows X-Next-Cursor to the end
 export const getUserExpenses = async (): Promise<ExpenseDTO[]> => {
   const response = await api.get<ExpenseDTO[]>('/expenses');
-  return response.data;
+  let expenses = response.data;
+  let nextCursor: string | null = response.headers['x-next-cursor'] ?? null;
+  while (nextCursor) {
+    const page = await getUserExpensesPage(nextCursor);
+    expenses = [...expenses, ...page.expenses];
+    nextCursor = page.nextCursor;
+  }
+  return expenses;
+};
+
+// The page after the cursor; the cursor for the one after that comes back in X-Next-Cursor
+export const getUserExpensesPage = async (cursor: string): Promise<ExpensePage> => {
+  const response = await api.get<ExpenseDTO[]>('/expenses', { params: { cursor } });
+  return { expenses: response.data, nextCursor: response.headers['x-next-cursor'] ?? null };
 };
 
 export const getUserBalances = async (): Promise<{ [key: number]: number }> => {
@@ -0,0 +1,115 @@
+package com.expensesplitter.benchmarks;
+
+import com.expensesplitter.RoommateExpenseSplitterApplication;
+import com.expensesplitter.dto.ExpensePage;
+import com.expensesplitter.service.BalanceAggregationService;
+import com.expensesplitter.service.BalanceLedgerService;
+import com.expensesplitter.service.ExpenseService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance and expense listing cost against a user with a long history, on an in-memory H2
+ * database seeded through plain JDBC batches. Each trial boots the application context once;
+ * seeding 1M expenses takes a while and needs the larger heap set on the fork.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class BalanceBenchmark {
+
+    private static final long USER_ID = 1L;
+    private static final int ROOMMATES = 10;
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"1000", "100000", "1000000"})
+    private int expenses;
+
+    private ConfigurableApplicationContext context;
+    private ExpenseService expenseService;
+    private BalanceAggregationService balanceAggregationService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(RoommateExpenseSplitterApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(BenchmarkDatabase.arguments("balances"));
+        expenseService = context.getBean(ExpenseService.class);
+        balanceAggregationService = context.getBean(BalanceAggregationService.class);
+
+        seed(context.getBean(JdbcTemplate.class));
+        context.getBean(BalanceLedgerService.class).rebuild(USER_ID);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<Long, BigDecimal> calculateBalancesFromLedger() {
+        return expenseService.calculateBalances(USER_ID);
+    }
+
+    @Benchmark
+    public Map<Long, BigDecimal> calculateBalancesByAggregation() {
+        return balanceAggregationService.aggregateBalances(USER_ID);
+    }
+
+    @Benchmark
+    public ExpensePage firstExpensePage() {
+        return expenseService.getUserExpenses(USER_ID, null, 100, null, null, null, null);
+    }
+
+    // One user whose own roommate is id 1, nine other roommates, and 1-4 counterparty shares per expense
+    private void seed(JdbcTemplate jdbc) {
+        Random random = new Random(expenses);
+        jdbc.update("INSERT INTO users (id, username, password) VALUES (?, ?, ?)", USER_ID, "bench", "x");
+        for (long id = 1; id <= ROOMMATES; id++) {
+            jdbc.update("INSERT INTO roommates (id, name, userid) VALUES (?, ?, ?)", id, "roommate" + id, USER_ID);
+        }
+
+        LocalDate start = LocalDate.of(2015, 1, 1);
+        List<Object[]> expenseRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> participantRows = new ArrayList<>(BATCH_SIZE * 4);
+        long participantId = 1;
+        for (long id = 1; id <= expenses; id++) {
+            BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(20_000), 2);
+            boolean userPaid = random.nextBoolean();
+            expenseRows.add(new Object[]{id, "expense" + id, amount, Date.valueOf(start.plusDays(random.nextInt(3650))),
+                    USER_ID, userPaid, "EQUAL"});
+
+            int counterparties = 1 + random.nextInt(4);
+            BigDecimal share = amount.divide(BigDecimal.valueOf(counterparties + 1), 2, RoundingMode.DOWN);
+            for (int i = 0; i < counterparties; i++) {
+                long roommateId = 2 + random.nextInt(ROOMMATES - 1);
+                participantRows.add(new Object[]{participantId++, id, roommateId, userPaid ? share.negate() : share});
+            }
+
+            if (expenseRows.size() == BATCH_SIZE || id == expenses) {
+                jdbc.batchUpdate("INSERT INTO expenses (id, description, amount, date, user_id, is_payer, split_type) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?)", expenseRows);
+                jdbc.batchUpdate("INSERT INTO expense_participants (id, expense_id, participant_id, share_amount) "
+                        + "VALUES (?, ?, ?, ?)", participantRows);
+                expenseRows.clear();
+                participantRows.clear();
+            }
+        }
+    }
+}
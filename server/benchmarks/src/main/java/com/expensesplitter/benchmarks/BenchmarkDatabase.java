@@ -0,0 +1,30 @@
+package com.expensesplitter.benchmarks;
+
+/**
+ * Command-line overrides that point the application at a private in-memory H2 database. They are
+ * passed as arguments rather than default properties so they win over application.properties.
+ */
+final class BenchmarkDatabase {
+
+    private BenchmarkDatabase() {
+    }
+
+    static String[] arguments(String databaseName) {
+        return new String[]{
+                "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--jwt.secret=benchmark-secret-benchmark-secret-benchmark-secret",
+                "--jwt.expiration=3600000",
+                "--logging.level.root=WARN",
+                "--logging.level.com.expensesplitter=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.sql.sample-rate=0",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "--logging.level.com.zaxxer.hikari=WARN",
+                "--logging.level.com.zaxxer.hikari.HikariConfig=WARN"
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package com.expensesplitter.benchmarks;
+
+import com.expensesplitter.service.DebtSimplifier;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settlement plan cost for households of 10, 100 and 1,000 members. The exact solver is only
+ * measured up to its default member cap; larger groups always use the greedy heap. {@code through}
+ * is the plan the API serves: every transfer via member 0, checked exactly while under the cap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DebtSimplifierBenchmark {
+
+    private static final DebtSimplifier SIMPLIFIER = new DebtSimplifier(12);
+
+    @State(Scope.Benchmark)
+    public static class Household {
+        @Param({"10", "100", "1000"})
+        int members;
+
+        long[] balances;
+
+        @Setup
+        public void setUp() {
+            balances = randomBalances(members);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SmallHousehold {
+        @Param({"6", "10", "12"})
+        int members;
+
+        long[] balances;
+
+        @Setup
+        public void setUp() {
+            balances = randomBalances(members);
+        }
+    }
+
+    @Benchmark
+    public List<DebtSimplifier.Transfer> greedy(Household household) {
+        return DebtSimplifier.simplifyGreedy(household.balances);
+    }
+
+    @Benchmark
+    public DebtSimplifier.Plan through(Household household) {
+        return SIMPLIFIER.simplifyThrough(household.balances, 0);
+    }
+
+    @Benchmark
+    public List<DebtSimplifier.Transfer> exact(SmallHousehold household) {
+        return DebtSimplifier.simplifyExact(household.balances);
+    }
+
+    // Seeded by size so runs are comparable; balances sum to zero like a real household.
+    static long[] randomBalances(int members) {
+        Random random = new Random(members);
+        long[] balances = new long[members];
+        long total = 0;
+        for (int i = 1; i < members; i++) {
+            balances[i] = random.nextInt(200_001) - 100_000;
+            total += balances[i];
+        }
+        balances[0] = -total;
+        return balances;
+    }
+}
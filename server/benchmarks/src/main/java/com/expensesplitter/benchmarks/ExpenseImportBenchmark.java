@@ -0,0 +1,88 @@
+package com.expensesplitter.benchmarks;
+
+import com.expensesplitter.RoommateExpenseSplitterApplication;
+import com.expensesplitter.dto.ExpenseDTO;
+import com.expensesplitter.dto.ExpenseImportReport;
+import com.expensesplitter.service.ExpenseImportService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Import throughput: one CSV body of {@code rows} generated expenses through ExpenseImportService,
+ * as POST /api/expenses/import runs it. Each invocation imports into the same household, so later
+ * iterations also pay for a growing ledger and expense table, as a real account would.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExpenseImportBenchmark {
+
+    private static final int ROOMMATES = 5;
+
+    @Param({"10000"})
+    private int rows;
+
+    @Param({"500"})
+    private int chunkSize;
+
+    private ConfigurableApplicationContext context;
+    private ExpenseImportService expenseImportService;
+    private Long userId;
+    private String csv;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(RoommateExpenseSplitterApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(BenchmarkDatabase.arguments("expense-import"));
+        expenseImportService = context.getBean(ExpenseImportService.class);
+
+        HouseholdGenerator generator = new HouseholdGenerator(context);
+        HouseholdGenerator.Household household = generator.generate(1, ROOMMATES, 0, 0, 1).get(0);
+        userId = household.userId();
+
+        Random random = new Random(1);
+        StringBuilder body = new StringBuilder("description,amount,date,splitType,paidBy,splitDetails\n");
+        for (int i = 0; i < rows; i++) {
+            body.append(csvRow(generator.randomExpense(household, random))).append('\n');
+        }
+        csv = body.toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ExpenseImportReport importCsv() throws IOException {
+        ExpenseImportReport report = expenseImportService.importExpenses(
+                new StringReader(csv), ExpenseImportService.Format.CSV, userId, chunkSize);
+        if (report.getFailed() > 0) {
+            throw new IllegalStateException("Generated rows failed to import: " + report.getErrors());
+        }
+        return report;
+    }
+
+    private static String csvRow(ExpenseDTO expense) {
+        String paidBy = expense.getPaidBy().stream().map(String::valueOf).collect(Collectors.joining(";"));
+        String splitDetails = expense.getSplitDetails().entrySet().stream()
+                .map(Map.Entry::toString)
+                .map(entry -> entry.replace('=', ':'))
+                .collect(Collectors.joining(";"));
+        return String.join(",", expense.getDescription(), expense.getAmount(), expense.getDate(),
+                expense.getSplitType(), paidBy, splitDetails);
+    }
+}
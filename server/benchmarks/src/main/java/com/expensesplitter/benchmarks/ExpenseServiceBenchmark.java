@@ -0,0 +1,151 @@
+package com.expensesplitter.benchmarks;
+
+import com.expensesplitter.dto.ExpenseDTO;
+import com.expensesplitter.entity.Expense;
+import com.expensesplitter.repository.ExpenseParticipantRepository;
+import com.expensesplitter.repository.ParticipantShare;
+import com.expensesplitter.service.ExpenseService;
+import com.expensesplitter.service.ExpenseShareCalculator;
+import com.expensesplitter.service.SplitCalculator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory cost of the expense write and read paths that do not touch the database: share
+ * calculation for each split type through {@link ExpenseShareCalculator}, and entity-to-DTO
+ * conversion through the public {@link ExpenseService#convertToDTO(Expense)} with a stub
+ * repository that hands back prepared shares instead of running the share query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExpenseServiceBenchmark {
+
+    private static final long USER_ID = 1L;
+
+    @Param({"2", "5", "10", "50"})
+    private int participants;
+
+    private ExpenseShareCalculator expenseShareCalculator;
+    private ExpenseService expenseService;
+    private BigDecimal amount;
+    private ExpenseDTO equalSinglePayer;
+    private ExpenseDTO equalMultiplePayers;
+    private ExpenseDTO custom;
+    private Expense expense;
+    private List<ParticipantShare> shares;
+
+    @Setup
+    public void setUp() {
+        expenseShareCalculator = new ExpenseShareCalculator(new SplitCalculator());
+
+        // An odd cent amount so the equal split always has remainder cents to hand out
+        amount = new BigDecimal("1000.07");
+
+        Map<Long, String> userPaysAll = new LinkedHashMap<>();
+        Map<Long, String> twoPayers = new LinkedHashMap<>();
+        Map<Long, String> customShares = new LinkedHashMap<>();
+        BigDecimal customShare = amount.divide(BigDecimal.valueOf(participants), 2, RoundingMode.DOWN);
+        for (long id = USER_ID; id < USER_ID + participants; id++) {
+            userPaysAll.put(id, id == USER_ID ? amount.toPlainString() : "0");
+            twoPayers.put(id, id == USER_ID ? "600.00" : id == USER_ID + 1 ? "400.07" : "0");
+            customShares.put(id, id == USER_ID
+                    ? amount.subtract(customShare.multiply(BigDecimal.valueOf(participants - 1))).toPlainString()
+                    : customShare.toPlainString());
+        }
+
+        equalSinglePayer = expenseDTO("equal", List.of(USER_ID), userPaysAll);
+        equalMultiplePayers = expenseDTO("equal", List.of(USER_ID, USER_ID + 1), twoPayers);
+        custom = expenseDTO("custom", List.of(USER_ID), customShares);
+
+        expense = new Expense();
+        expense.setId(42L);
+        expense.setDescription("Groceries");
+        expense.setAmount(amount);
+        expense.setDate(LocalDate.of(2024, 3, 1));
+        expense.setSplitType(Expense.SplitType.EQUAL);
+        shares = new ArrayList<>(participants);
+        for (long id = USER_ID; id < USER_ID + participants; id++) {
+            BigDecimal share = id == USER_ID ? amount.negate() : customShare;
+            shares.add(new Share(id, expense.getId(), id, share));
+        }
+
+        // Only the share lookup behind convertToDTO is ever called on the stub
+        ExpenseParticipantRepository sharesOnly = (ExpenseParticipantRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{ExpenseParticipantRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findSharesByExpenseIds")) {
+                        return shares;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        expenseService = new ExpenseService(null, sharesOnly, null, null, null, null, null, expenseShareCalculator,
+                new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Map<Long, BigDecimal> equalSplitSinglePayer() {
+        return expenseShareCalculator.computeShares(equalSinglePayer, USER_ID, amount, Expense.SplitType.EQUAL);
+    }
+
+    @Benchmark
+    public Map<Long, BigDecimal> equalSplitMultiplePayers() {
+        return expenseShareCalculator.computeShares(equalMultiplePayers, USER_ID, amount, Expense.SplitType.EQUAL);
+    }
+
+    @Benchmark
+    public Map<Long, BigDecimal> customSplit() {
+        return expenseShareCalculator.computeShares(custom, USER_ID, amount, Expense.SplitType.CUSTOM);
+    }
+
+    @Benchmark
+    public ExpenseDTO convertToDTO() {
+        return expenseService.convertToDTO(expense);
+    }
+
+    private static ExpenseDTO expenseDTO(String splitType, List<Long> paidBy, Map<Long, String> splitDetails) {
+        ExpenseDTO dto = new ExpenseDTO();
+        dto.setDescription("Groceries");
+        dto.setAmount("1000.07");
+        dto.setDate("2024-03-01");
+        dto.setSplitType(splitType);
+        dto.setPaidBy(paidBy);
+        dto.setSplitDetails(splitDetails);
+        return dto;
+    }
+
+    private record Share(Long id, Long expenseId, Long participantId, BigDecimal shareAmount) implements ParticipantShare {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getExpenseId() {
+            return expenseId;
+        }
+
+        @Override
+        public Long getParticipantId() {
+            return participantId;
+        }
+
+        @Override
+        public BigDecimal getShareAmount() {
+            return shareAmount;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.expensesplitter.benchmarks;
+
+import com.expensesplitter.dto.ExpenseDTO;
+import com.expensesplitter.dto.SettlementDTO;
+import com.expensesplitter.entity.Roommate;
+import com.expensesplitter.entity.User;
+import com.expensesplitter.repository.RoommateRepository;
+import com.expensesplitter.repository.UserRepository;
+import com.expensesplitter.security.JwtUtil;
+import com.expensesplitter.service.ExpenseService;
+import com.expensesplitter.service.SettlementService;
+import org.springframework.context.ApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Seeds synthetic households: a user, their roommates, and a history of expenses and settlements
+ * between them. Everything goes through ExpenseService and SettlementService, so validation, the
+ * balance ledger and the checkpoints see the same writes the controllers would make. The same
+ * seed always produces the same households, relative to the day the generator runs.
+ *
+ * About half the expenses are equal splits paid by one person, one in six are equal splits paid
+ * by the user and a roommate together, and the rest are custom splits; a third of single-payer
+ * expenses are paid by a roommate. Settlements go either way between the user and one roommate.
+ */
+final class HouseholdGenerator {
+
+    private static final int SEED_CHUNK = 500;
+    private static final int HISTORY_DAYS = 3 * 365;
+
+    record Household(Long userId, String token, List<Long> roommateIds) {
+    }
+
+    private final ApplicationContext context;
+    private final LocalDate today = LocalDate.now();
+
+    HouseholdGenerator(ApplicationContext context) {
+        this.context = context;
+    }
+
+    List<Household> generate(int households, int roommates, int expenses, int settlements, long seed) {
+        List<Household> generated = new ArrayList<>(households);
+        for (int i = 0; i < households; i++) {
+            Random random = new Random(seed + i);
+            Household household = createHousehold("household" + i + "-" + seed, roommates);
+            seedExpenses(household, expenses, random);
+            seedSettlements(household, settlements, random);
+            generated.add(household);
+        }
+        return generated;
+    }
+
+    ExpenseDTO randomExpense(Household household, Random random) {
+        List<Long> roommateIds = household.roommateIds();
+        int counterparties = 1 + random.nextInt(roommateIds.size());
+        Long roommatePayer = roommateIds.get(random.nextInt(counterparties));
+
+        ExpenseDTO dto = new ExpenseDTO();
+        dto.setDescription("expense " + random.nextInt(1_000_000));
+        dto.setDate(today.minusDays(random.nextInt(HISTORY_DAYS)).toString());
+
+        // Equal splits list what each participant paid, custom splits what each one owes
+        Map<Long, String> splitDetails = new HashMap<>();
+        splitDetails.put(household.userId(), "0");
+        for (int j = 0; j < counterparties; j++) {
+            splitDetails.put(roommateIds.get(j), "0");
+        }
+
+        int kind = random.nextInt(6);
+        long amount = 500 + random.nextInt(20_000);
+        if (kind < 3) {
+            Long payer = random.nextInt(3) == 0 ? roommatePayer : household.userId();
+            dto.setSplitType("equal");
+            dto.setPaidBy(List.of(payer));
+            splitDetails.put(payer, cents(amount));
+        } else if (kind == 3) {
+            long userPaid = amount * (1 + random.nextInt(9)) / 10;
+            dto.setSplitType("equal");
+            dto.setPaidBy(List.of(household.userId(), roommatePayer));
+            splitDetails.put(household.userId(), cents(userPaid));
+            splitDetails.put(roommatePayer, cents(amount - userPaid));
+        } else {
+            dto.setSplitType("custom");
+            dto.setPaidBy(List.of(random.nextInt(3) == 0 ? roommatePayer : household.userId()));
+            amount = 0;
+            for (Long id : splitDetails.keySet()) {
+                long share = 100 + random.nextInt(5_000);
+                splitDetails.put(id, cents(share));
+                amount += share;
+            }
+        }
+        dto.setAmount(cents(amount));
+        dto.setSplitDetails(splitDetails);
+        return dto;
+    }
+
+    SettlementDTO randomSettlement(Household household, Random random) {
+        Long roommateId = household.roommateIds().get(random.nextInt(household.roommateIds().size()));
+        boolean userPays = random.nextBoolean();
+
+        SettlementDTO dto = new SettlementDTO();
+        dto.setPayerId(userPays ? household.userId() : roommateId);
+        dto.setReceiverId(userPays ? roommateId : household.userId());
+        dto.setAmount(BigDecimal.valueOf(500 + random.nextInt(10_000), 2));
+        dto.setDate(today.minusDays(random.nextInt(HISTORY_DAYS)));
+        return dto;
+    }
+
+    private Household createHousehold(String username, int roommates) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("x");
+        user = context.getBean(UserRepository.class).save(user);
+
+        RoommateRepository roommateRepository = context.getBean(RoommateRepository.class);
+        List<Long> roommateIds = new ArrayList<>(roommates);
+        for (int i = 1; roommateIds.size() < roommates; i++) {
+            Roommate roommate = new Roommate();
+            roommate.setName("roommate" + i);
+            roommate.setUser(user);
+            Long id = roommateRepository.save(roommate).getId();
+            // Split details key users and roommates by id in one map, so a roommate sharing the
+            // user's id would be merged with them; keep it out of the generated history instead
+            if (!id.equals(user.getId())) {
+                roommateIds.add(id);
+            }
+        }
+
+        String token = context.getBean(JwtUtil.class).generateToken(user.getUsername(), user.getId());
+        return new Household(user.getId(), token, List.copyOf(roommateIds));
+    }
+
+    private void seedExpenses(Household household, int expenses, Random random) {
+        ExpenseService expenseService = context.getBean(ExpenseService.class);
+        List<ExpenseDTO> chunk = new ArrayList<>(SEED_CHUNK);
+        for (int i = 1; i <= expenses; i++) {
+            chunk.add(randomExpense(household, random));
+            if (chunk.size() == SEED_CHUNK || i == expenses) {
+                expenseService.createExpenses(chunk, household.userId());
+                chunk.clear();
+            }
+        }
+    }
+
+    private void seedSettlements(Household household, int settlements, Random random) {
+        SettlementService settlementService = context.getBean(SettlementService.class);
+        for (int i = 0; i < settlements; i++) {
+            SettlementDTO dto = randomSettlement(household, random);
+            settlementService.createSettlement(dto.getPayerId(), dto.getReceiverId(), dto.getAmount(), dto.getDate(),
+                    household.userId());
+        }
+    }
+
+    private static String cents(long cents) {
+        return BigDecimal.valueOf(cents, 2).toPlainString();
+    }
+}
@@ -0,0 +1,227 @@
+package com.expensesplitter.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a weighted mix of API calls against a running server. Each client thread picks a random
+ * household and operation per request and sends it as soon as the previous one returns, or on a
+ * fixed schedule when a target rate is given. With a target rate, latency is measured from when
+ * a request was due rather than when it was sent, so a stalled server shows up in the tail
+ * instead of just slowing the clients down.
+ */
+final class LoadDriver {
+
+    record Result(LoadOperation operation, int requests, int errors, double throughput,
+                  double p50Millis, double p90Millis, double p99Millis, double maxMillis) {
+
+        @Override
+        public String toString() {
+            return String.format("%-18s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f", operation, requests, errors,
+                    throughput, p50Millis, p90Millis, p99Millis, maxMillis);
+        }
+
+        static String header() {
+            return String.format("%-18s %8s %7s %9s %9s %9s %9s %9s", "operation", "requests", "errors", "req/s",
+                    "p50 ms", "p90 ms", "p99 ms", "max ms");
+        }
+    }
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final HouseholdGenerator generator;
+    private final List<HouseholdGenerator.Household> households;
+    private final LoadOperation[] operations;
+    private final int[] cumulativeWeights;
+
+    LoadDriver(String baseUrl, ObjectMapper objectMapper, HouseholdGenerator generator,
+               List<HouseholdGenerator.Household> households, String mix) {
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+        this.generator = generator;
+        this.households = households;
+
+        Map<LoadOperation, Integer> weights = parseMix(mix);
+        operations = weights.keySet().toArray(new LoadOperation[0]);
+        cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    // "LIST_EXPENSES=3,BALANCES=1" runs three expense listings for every balance call
+    static Map<LoadOperation, Integer> parseMix(String mix) {
+        Map<LoadOperation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=", 2);
+            int weight = parts.length == 2 ? Integer.parseInt(parts[1].trim()) : 1;
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in mix: " + entry);
+            }
+            if (weight > 0) {
+                weights.put(LoadOperation.valueOf(parts[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no operations: " + mix);
+        }
+        return weights;
+    }
+
+    /**
+     * Runs clients for the given time and returns one result per operation in the mix. A rate of
+     * 0 or less lets every client go as fast as the server answers.
+     */
+    List<Result> run(int clients, int seconds, double rate, long seed) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + Duration.ofSeconds(seconds).toNanos();
+        long interval = rate > 0 ? (long) (1e9 * clients / rate) : 0;
+
+        List<Map<LoadOperation, Samples>> perClient = new ArrayList<>(clients);
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            Map<LoadOperation, Samples> samples = new EnumMap<>(LoadOperation.class);
+            for (LoadOperation operation : operations) {
+                samples.put(operation, new Samples());
+            }
+            perClient.add(samples);
+
+            Random random = new Random(seed + i);
+            // Stagger paced clients across the interval so they do not fire in bursts
+            long firstDue = start + (interval * i) / clients;
+            Thread thread = new Thread(() -> drive(random, samples, firstDue, interval, deadline), "load-client-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        List<Result> results = new ArrayList<>(operations.length);
+        for (LoadOperation operation : operations) {
+            Samples merged = new Samples();
+            for (Map<LoadOperation, Samples> samples : perClient) {
+                merged.addAll(samples.get(operation));
+            }
+            results.add(merged.summarize(operation, elapsedSeconds));
+        }
+        return results;
+    }
+
+    private void drive(Random random, Map<LoadOperation, Samples> samples, long firstDue, long interval, long deadline) {
+        long due = firstDue;
+        while (true) {
+            if (interval > 0) {
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            long sent = System.nanoTime();
+            if (sent >= deadline) {
+                return;
+            }
+            long measuredFrom = interval > 0 ? due : sent;
+            due += interval;
+
+            HouseholdGenerator.Household household = households.get(random.nextInt(households.size()));
+            LoadOperation operation = pick(random);
+            Samples operationSamples = samples.get(operation);
+            try {
+                HttpResponse<Void> response = client.send(request(operation, household, random),
+                        HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != operation.expectedStatus) {
+                    operationSamples.errors++;
+                    continue;
+                }
+            } catch (Exception e) {
+                operationSamples.errors++;
+                continue;
+            }
+            operationSamples.add(System.nanoTime() - measuredFrom);
+        }
+    }
+
+    private LoadOperation pick(Random random) {
+        int ticket = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (ticket < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private HttpRequest request(LoadOperation operation, HouseholdGenerator.Household household, Random random)
+            throws JsonProcessingException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + operation.path(household, random)))
+                .header("Authorization", "Bearer " + household.token())
+                .timeout(Duration.ofSeconds(30));
+        return switch (operation) {
+            case CREATE_EXPENSE -> post(builder, generator.randomExpense(household, random));
+            case CREATE_SETTLEMENT -> post(builder, generator.randomSettlement(household, random));
+            default -> builder.GET().build();
+        };
+    }
+
+    private HttpRequest post(HttpRequest.Builder builder, Object body) throws JsonProcessingException {
+        return builder.header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+    }
+
+    // Latencies in nanoseconds for one operation on one client, in a growable primitive array
+    private static final class Samples {
+        private long[] values = new long[1024];
+        private int size;
+        private int errors;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+            errors += other.errors;
+        }
+
+        Result summarize(LoadOperation operation, double elapsedSeconds) {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return new Result(operation, size, errors, size / elapsedSeconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    size == 0 ? 0 : sorted[size - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double fraction) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(fraction * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
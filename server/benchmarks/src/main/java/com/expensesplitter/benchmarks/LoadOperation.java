@@ -0,0 +1,42 @@
+package com.expensesplitter.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Calls the load driver can make, named for use in --mix. Paths may contain {roommateId}, which
+ * is replaced with one of the calling household's roommates.
+ */
+enum LoadOperation {
+    LIST_EXPENSES("GET", "/api/expenses", 200),
+    BALANCES("GET", "/api/expenses/balances", 200),
+    PARTICIPANTS("GET", "/api/expenses/participants", 200),
+    CREATE_EXPENSE("POST", "/api/expenses", 201),
+    LIST_ROOMMATES("GET", "/api/roommates", 200),
+    GET_ROOMMATE("GET", "/api/roommates/{roommateId}", 200),
+    LIST_SETTLEMENTS("GET", "/api/settlements", 200),
+    BALANCE_SUMMARY("GET", "/api/settlements/balance-summary", 200),
+    SETTLEMENT_PLAN("GET", "/api/settlements/plan", 200),
+    CREATE_SETTLEMENT("POST", "/api/settlements", 201);
+
+    // Mostly dashboard reads, with a write for every ten or so
+    static final String DEFAULT_MIX = "LIST_EXPENSES=25,BALANCES=20,PARTICIPANTS=5,LIST_ROOMMATES=15,GET_ROOMMATE=5,"
+            + "LIST_SETTLEMENTS=5,BALANCE_SUMMARY=10,SETTLEMENT_PLAN=5,CREATE_EXPENSE=8,CREATE_SETTLEMENT=2";
+
+    final String method;
+    final int expectedStatus;
+    private final String path;
+
+    LoadOperation(String method, String path, int expectedStatus) {
+        this.method = method;
+        this.path = path;
+        this.expectedStatus = expectedStatus;
+    }
+
+    String path(HouseholdGenerator.Household household, Random random) {
+        if (!path.contains("{roommateId}")) {
+            return path;
+        }
+        Long roommateId = household.roommateIds().get(random.nextInt(household.roommateIds().size()));
+        return path.replace("{roommateId}", roommateId.toString());
+    }
+}
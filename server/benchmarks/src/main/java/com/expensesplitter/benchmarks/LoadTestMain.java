@@ -0,0 +1,83 @@
+package com.expensesplitter.benchmarks;
+
+import com.expensesplitter.RoommateExpenseSplitterApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-to-end load test: starts the server on a random port, seeds synthetic households (see
+ * HouseholdGenerator), replays a weighted mix of calls through the real controllers (see
+ * LoadDriver) and reports throughput and latency percentiles per operation. Results are also
+ * written as JSON to target/loadtest-result.json (or --result) so runs before and after a change
+ * can be compared.
+ *
+ * Run from server/benchmarks after "mvn -B package":
+ *     java -cp target/benchmarks.jar com.expensesplitter.benchmarks.LoadTestMain \
+ *         --households=50 --expenses=2000 --clients=32 --seconds=60
+ *
+ * Options (defaults in main): households, roommates, expenses and settlements per household,
+ * clients, seconds, warmup, rate (total requests per second, 0 for as fast as possible), mix
+ * (e.g. "LIST_EXPENSES=3,BALANCES=1", see LoadOperation), seed and result. Anything else is passed
+ * to the application; to load a local Postgres instead of the in-memory H2 database pass
+ * --spring.datasource.url, username, password and
+ * --spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect.
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> defaults = new LinkedHashMap<>();
+        defaults.put("households", "20");
+        defaults.put("roommates", "4");
+        defaults.put("expenses", "1000");
+        defaults.put("settlements", "50");
+        defaults.put("clients", "16");
+        defaults.put("seconds", "30");
+        defaults.put("warmup", "10");
+        defaults.put("rate", "0");
+        defaults.put("mix", LoadOperation.DEFAULT_MIX);
+        defaults.put("seed", "42");
+        defaults.put("result", "target/loadtest-result.json");
+        LoadTestOptions options = LoadTestOptions.parse(args, defaults);
+
+        String[] applicationArgs = options.applicationArgs("loadtest", "--server.port=0");
+        try (ConfigurableApplicationContext context =
+                     new SpringApplicationBuilder(RoommateExpenseSplitterApplication.class).run(applicationArgs)) {
+            HouseholdGenerator generator = new HouseholdGenerator(context);
+            long seedStart = System.nanoTime();
+            List<HouseholdGenerator.Household> households = generator.generate(options.getInt("households"),
+                    options.getInt("roommates"), options.getInt("expenses"), options.getInt("settlements"),
+                    options.getLong("seed"));
+            System.out.printf("Seeded %d households in %.1f s%n", households.size(), (System.nanoTime() - seedStart) / 1e9);
+
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            LoadDriver driver = new LoadDriver(baseUrl, objectMapper, generator, households, options.get("mix"));
+
+            int clients = options.getInt("clients");
+            double rate = Double.parseDouble(options.get("rate"));
+            if (options.getInt("warmup") > 0) {
+                driver.run(clients, options.getInt("warmup"), rate, options.getLong("seed") - 1);
+            }
+            List<LoadDriver.Result> results = driver.run(clients, options.getInt("seconds"), rate, options.getLong("seed"));
+
+            System.out.println();
+            System.out.println(LoadDriver.Result.header());
+            results.forEach(System.out::println);
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("javaVersion", Runtime.version().toString());
+            report.put("options", options.values());
+            report.put("results", results);
+            File resultFile = new File(options.get("result"));
+            objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(resultFile, report);
+            System.out.println("Results written to " + resultFile);
+        }
+    }
+}
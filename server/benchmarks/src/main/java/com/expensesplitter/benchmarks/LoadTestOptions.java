@@ -0,0 +1,66 @@
+package com.expensesplitter.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * "--name=value" options for the load test entry points. Names with a default are the harness's
+ * own; every other argument is kept for the application, so a Postgres datasource or any other
+ * property can be passed straight through.
+ */
+final class LoadTestOptions {
+
+    private final Map<String, String> values;
+    private final List<String> applicationArgs;
+
+    private LoadTestOptions(Map<String, String> values, List<String> applicationArgs) {
+        this.values = values;
+        this.applicationArgs = applicationArgs;
+    }
+
+    static LoadTestOptions parse(String[] args, Map<String, String> defaults) {
+        Map<String, String> values = new LinkedHashMap<>(defaults);
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            if (option.length == 2 && values.containsKey(option[0])) {
+                values.put(option[0], option[1]);
+            } else {
+                applicationArgs.add(arg);
+            }
+        }
+        return new LoadTestOptions(values, applicationArgs);
+    }
+
+    String get(String name) {
+        String value = values.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Unknown option: " + name);
+        }
+        return value;
+    }
+
+    int getInt(String name) {
+        return Integer.parseInt(get(name));
+    }
+
+    long getLong(String name) {
+        return Long.parseLong(get(name));
+    }
+
+    Map<String, String> values() {
+        return values;
+    }
+
+    // In-memory H2 defaults, then the harness's own settings, then whatever was passed through
+    String[] applicationArgs(String databaseName, String... settings) {
+        return Stream.of(Arrays.stream(BenchmarkDatabase.arguments(databaseName)), Arrays.stream(settings),
+                        applicationArgs.stream())
+                .flatMap(s -> s)
+                .toArray(String[]::new);
+    }
+}
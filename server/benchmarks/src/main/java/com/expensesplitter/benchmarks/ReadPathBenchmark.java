@@ -0,0 +1,99 @@
+package com.expensesplitter.benchmarks;
+
+import com.expensesplitter.RoommateExpenseSplitterApplication;
+import com.expensesplitter.dto.ExpensePage;
+import com.expensesplitter.dto.RoommateDTO;
+import com.expensesplitter.service.ExpenseService;
+import com.expensesplitter.service.RoommateService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Read paths in the read-only transactions the services now open, against the same calls run
+ * inside an ordinary read-write transaction, which keeps entity snapshots, dirty-checks them and
+ * flushes on commit. Connection checkouts per call are printed at the end of each trial: with the
+ * lazy DataSource proxy a call served from the second-level cache takes none, and a call that
+ * does run SQL takes exactly one however many repository calls it makes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReadPathBenchmark {
+
+    private static final int ROOMMATES = 5;
+    private static final int EXPENSES = 5000;
+
+    @Param({"read-only", "read-write"})
+    private String transaction;
+
+    private ConfigurableApplicationContext context;
+    private ExpenseService expenseService;
+    private RoommateService roommateService;
+    private TransactionTemplate readWrite;
+    private MeterRegistry meterRegistry;
+    private Long userId;
+
+    private long calls;
+    private long checkoutsAtStart;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(RoommateExpenseSplitterApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(BenchmarkDatabase.arguments("read-path"));
+        expenseService = context.getBean(ExpenseService.class);
+        roommateService = context.getBean(RoommateService.class);
+        readWrite = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        meterRegistry = context.getBean(MeterRegistry.class);
+
+        userId = new HouseholdGenerator(context).generate(1, ROOMMATES, EXPENSES, 100, 1).get(0).userId();
+        checkoutsAtStart = checkouts();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n%s: %.2f connection checkouts per call%n", transaction,
+                (double) (checkouts() - checkoutsAtStart) / Math.max(1, calls));
+        context.close();
+    }
+
+    @Benchmark
+    public ExpensePage expensePage() {
+        return run(() -> expenseService.getUserExpenses(userId, null, 100, null, null, null, null));
+    }
+
+    @Benchmark
+    public Map<Long, BigDecimal> balances() {
+        return run(() -> expenseService.calculateBalances(userId));
+    }
+
+    @Benchmark
+    public List<RoommateDTO> roommates() {
+        return run(() -> roommateService.getRoommates(userId));
+    }
+
+    // The service's read-only transaction joins the outer one, so read-write mode gets a normal session
+    private <T> T run(Supplier<T> call) {
+        calls++;
+        return "read-only".equals(transaction) ? call.get() : readWrite.execute(status -> call.get());
+    }
+
+    private long checkouts() {
+        return meterRegistry.find("hikaricp.connections.usage").timers().stream().mapToLong(Timer::count).sum();
+    }
+}
@@ -0,0 +1,69 @@
+package com.expensesplitter.benchmarks;
+
+import com.expensesplitter.service.SplitCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw split cost per strategy. Run with "-prof gc" to see the allocation rate; every method here
+ * should report close to zero bytes per operation, since shares are written into a reused array.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SplitCalculatorBenchmark {
+
+    @Param({"2", "5", "10", "50"})
+    private int participants;
+
+    private final SplitCalculator splitCalculator = new SplitCalculator();
+    private final long totalCents = 100_007;
+    private long[] shares;
+    private long[] customAmounts;
+    private long[] basisPoints;
+    private long[] weights;
+
+    @Setup
+    public void setUp() {
+        shares = new long[participants];
+        customAmounts = new long[participants];
+        basisPoints = new long[participants];
+        weights = new long[participants];
+
+        splitCalculator.equal(totalCents, customAmounts);
+        long percentLeft = SplitCalculator.PERCENT_BASIS_POINTS;
+        for (int i = 0; i < participants; i++) {
+            basisPoints[i] = i == participants - 1 ? percentLeft : SplitCalculator.PERCENT_BASIS_POINTS / (participants + 1);
+            percentLeft -= basisPoints[i];
+            weights[i] = 1 + i % 3;
+        }
+    }
+
+    @Benchmark
+    public long[] equal() {
+        splitCalculator.equal(totalCents, shares);
+        return shares;
+    }
+
+    @Benchmark
+    public long[] custom() {
+        splitCalculator.custom(totalCents, customAmounts, shares);
+        return shares;
+    }
+
+    @Benchmark
+    public long[] percentage() {
+        splitCalculator.percentage(totalCents, basisPoints, shares);
+        return shares;
+    }
+
+    @Benchmark
+    public long[] weightedShares() {
+        splitCalculator.shares(totalCents, weights, shares);
+        return shares;
+    }
+}
@@ -0,0 +1,78 @@
+package com.expensesplitter.benchmarks;
+
+import com.expensesplitter.RoommateExpenseSplitterApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares request handling on platform threads and on virtual threads. For each mode the server
+ * is started on a random port with spring.threads.virtual.enabled set accordingly, one user is
+ * seeded with a history of expenses, and a fixed number of clients call /api/expenses and
+ * /api/expenses/balances back to back. Throughput and latency percentiles are printed per mode.
+ *
+ * Run from server/benchmarks after "mvn -B package":
+ *     java -cp target/benchmarks.jar com.expensesplitter.benchmarks.ThreadModeLoadTest \
+ *         --clients=200 --seconds=30 --expenses=5000
+ *
+ * The default in-memory H2 database never waits on I/O, which is where virtual threads help, so
+ * for numbers that mean anything pass a Postgres datasource, e.g.
+ * --spring.datasource.url=jdbc:postgresql://localhost:5432/loadtest (plus username, password and
+ * --spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect). Any option
+ * other than clients, seconds, warmup and expenses is passed to the application. Virtual threads
+ * need Java 21, so build and run on JDK 21 (the java21 profile); on older runtimes the test refuses
+ * to run rather than report two platform-thread runs as a comparison.
+ */
+public class ThreadModeLoadTest {
+
+    private static final List<LoadOperation> OPERATIONS = List.of(LoadOperation.LIST_EXPENSES, LoadOperation.BALANCES);
+    private static final int ROOMMATES = 5;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args, Map.of(
+                "clients", "100", "seconds", "20", "warmup", "5", "expenses", "5000"));
+
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Running on Java " + Runtime.version().feature()
+                    + ": virtual threads need Java 21, so there is nothing to compare");
+        }
+
+        List<String> results = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            results.addAll(run(virtual, options));
+        }
+
+        System.out.println();
+        System.out.printf("%-9s %s%n", "threads", LoadDriver.Result.header());
+        results.forEach(System.out::println);
+    }
+
+    private static List<String> run(boolean virtual, LoadTestOptions options) throws Exception {
+        String mode = virtual ? "virtual" : "platform";
+        String[] args = options.applicationArgs("threads-" + mode, "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual, "--balance-checkpoints.enabled=false");
+
+        try (ConfigurableApplicationContext context =
+                     new SpringApplicationBuilder(RoommateExpenseSplitterApplication.class).run(args)) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HouseholdGenerator generator = new HouseholdGenerator(context);
+            List<HouseholdGenerator.Household> households =
+                    generator.generate(1, ROOMMATES, options.getInt("expenses"), 0, options.getInt("expenses"));
+
+            List<String> lines = new ArrayList<>();
+            for (LoadOperation operation : OPERATIONS) {
+                LoadDriver driver = new LoadDriver(baseUrl, context.getBean(ObjectMapper.class), generator, households,
+                        operation.name());
+                driver.run(options.getInt("clients"), options.getInt("warmup"), 0, 0);
+                for (LoadDriver.Result result : driver.run(options.getInt("clients"), options.getInt("seconds"), 0, 1)) {
+                    lines.add(String.format("%-9s %s", mode, result));
+                }
+            }
+            return lines;
+        }
+    }
+}
@@ -2,10 +2,12 @@ package com.expensesplitter;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.bind.annotation.GetMapping;
 
 
 @SpringBootApplication
+@EnableScheduling
 
 public class RoommateExpenseSplitterApplication {
 
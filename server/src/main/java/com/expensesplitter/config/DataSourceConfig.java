@@ -0,0 +1,52 @@
+package com.expensesplitter.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * The application DataSource is a LazyConnectionDataSourceProxy over the Hikari pool. A transaction
+ * only checks out a pooled connection when it runs its first statement, so requests answered from
+ * the second-level cache never touch the pool. Read-only transactions mark the connection read-only
+ * before it is fetched, which lets the proxy take it from a replica pool when
+ * spring.datasource.replica.jdbc-url is set; everything else, including Flyway, uses the primary.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    // Bound from spring.datasource.* and spring.datasource.hikari.*, as Spring Boot would on its own
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // Bound from spring.datasource.replica.* using Hikari property names (jdbc-url, username, password, ...)
+    @Bean
+    @ConditionalOnProperty("spring.datasource.replica.jdbc-url")
+    @ConfigurationProperties("spring.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        replicaDataSource.ifAvailable(dataSource::setReadOnlyDataSource);
+        return dataSource;
+    }
+}
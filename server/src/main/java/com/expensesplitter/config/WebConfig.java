@@ -1,5 +1,6 @@
 package com.expensesplitter.config;
 
+import com.expensesplitter.controller.ExpenseController;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
@@ -14,6 +15,7 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:3000", "http://localhost:3000/login", "http://localhost:3000/dashboard", "https://roommate-expense-splitter.netlify.app", "https://roommateexpensesplitter.com") 
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders(ExpenseController.NEXT_CURSOR_HEADER)
                 .allowCredentials(true);
     }
 }
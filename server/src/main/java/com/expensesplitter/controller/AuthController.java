@@ -6,6 +6,8 @@ import com.expensesplitter.security.JwtUtil;
 import com.expensesplitter.dto.AuthResponse;
 import com.expensesplitter.dto.LoginRequest;
 import com.expensesplitter.dto.SignupRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +22,8 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = {"http://localhost:3000", "https://roommate-expense-splitter.netlify.app"})
 
 public class AuthController {
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
     private final UserRepository userRepository;
@@ -39,19 +43,20 @@ public class AuthController {
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
         try {
-            System.out.println("Login attempt for user: " + loginRequest.getUsername());
+            log.debug("Login attempt for user {}", loginRequest.getUsername());
             authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
             );
-            String token = jwtUtil.generateToken(loginRequest.getUsername());
-            System.out.println("User logged in successfully: " + loginRequest.getUsername());
+            User user = userRepository.findByUsername(loginRequest.getUsername())
+                    .orElseThrow(() -> new BadCredentialsException("User not found"));
+            String token = jwtUtil.generateToken(user.getUsername(), user.getId());
+            log.info("User {} logged in", loginRequest.getUsername());
             return ResponseEntity.ok(new AuthResponse(token));
         } catch (BadCredentialsException e) {
-            System.out.println("Login failed for user: " + loginRequest.getUsername() + ". Reason: Bad credentials");
+            log.info("Login failed for user {}: bad credentials", loginRequest.getUsername());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
         } catch (Exception e) {
-            System.out.println("Unexpected error during login for user: " + loginRequest.getUsername());
-            e.printStackTrace();
+            log.error("Unexpected error during login for user {}", loginRequest.getUsername(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred");
         }
     }
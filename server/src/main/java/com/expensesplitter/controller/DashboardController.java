@@ -0,0 +1,48 @@
+package com.expensesplitter.controller;
+
+import com.expensesplitter.dto.DashboardDTO;
+import com.expensesplitter.entity.User;
+import com.expensesplitter.repository.UserRepository;
+import com.expensesplitter.security.AuthenticatedUser;
+import com.expensesplitter.service.DashboardService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+    private final UserRepository userRepository;
+
+    public DashboardController(DashboardService dashboardService, UserRepository userRepository) {
+        this.dashboardService = dashboardService;
+        this.userRepository = userRepository;
+    }
+
+    // Replaces the separate user, roommate, expense, balance and participant calls made on page load
+    @GetMapping
+    public ResponseEntity<DashboardDTO> getDashboard(@RequestParam(required = false) Integer limit) {
+        Long loggedInUserId = getLoggedInUserId();
+        return ResponseEntity.ok(dashboardService.getDashboard(loggedInUserId, limit));
+    }
+
+    private Long getLoggedInUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new RuntimeException("User not authenticated");
+        }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
+        String username = authentication.getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return user.getId();
+    }
+}
@@ -1,20 +1,39 @@
 package com.expensesplitter.controller;
 
 import com.expensesplitter.dto.ExpenseDTO;
+import com.expensesplitter.dto.ExpenseImportReport;
+import com.expensesplitter.dto.ExpensePage;
 import com.expensesplitter.dto.ExpenseParticipantDTO;
+import com.expensesplitter.dto.ExpenseParticipantPage;
 import com.expensesplitter.entity.Expense;
 import com.expensesplitter.entity.User;
 import com.expensesplitter.repository.UserRepository;
+import com.expensesplitter.security.AuthenticatedUser;
+import com.expensesplitter.service.ExpenseImportService;
 import com.expensesplitter.service.ExpenseParticipantService;
 import com.expensesplitter.service.ExpenseService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
@@ -24,36 +43,66 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/expenses")
 public class ExpenseController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseController.class);
+
     private final ExpenseService expenseService;
     private final UserRepository userRepository;
 
     private final ExpenseParticipantService expenseParticipantService;
 
-    public ExpenseController(ExpenseService expenseService, UserRepository userRepository, ExpenseParticipantService expenseParticipantService) {
+    private final ExpenseImportService expenseImportService;
+
+    private final ObjectWriter participantWriter;
+
+    @Value("${expense-import.chunk-size:500}")
+    private int defaultImportChunkSize;
+
+    public ExpenseController(ExpenseService expenseService, UserRepository userRepository, ExpenseParticipantService expenseParticipantService,
+                             ExpenseImportService expenseImportService, ObjectMapper objectMapper) {
         this.expenseService = expenseService;
         this.userRepository = userRepository;
         this.expenseParticipantService=expenseParticipantService;
+        this.expenseImportService = expenseImportService;
+        // Streamed rows are flushed by the servlet buffer, not one write per row
+        this.participantWriter = objectMapper.writerFor(ExpenseParticipantDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @PostMapping
     public ResponseEntity<?> createExpense(@RequestBody ExpenseDTO expenseDTO) {
         try {
-            System.out.println("Received ExpenseDTO: " + expenseDTO);
-
             Long loggedInUserId = getLoggedInUserId();
-            System.out.println("Logged in user ID: " + loggedInUserId);
-            System.out.println("PaidBy: " + expenseDTO.getPaidBy());
-            System.out.println("SplitDetails: " + expenseDTO.getSplitDetails());
+            log.debug("Creating expense for user {}: {}", loggedInUserId, expenseDTO);
 
             Expense createdExpense = expenseService.createExpense(expenseDTO, loggedInUserId);
-            return new ResponseEntity<>(createdExpense, HttpStatus.CREATED);
+            return new ResponseEntity<>(expenseService.convertToDTO(createdExpense), HttpStatus.CREATED);
         } catch (Exception e) {
-            e.printStackTrace();
-            System.out.println("Error creating expense: " + e.getMessage());
+            log.warn("Error creating expense: {}", e.getMessage(), e);
             return new ResponseEntity<>("Error creating expense: " + e.getMessage(), HttpStatus.BAD_REQUEST);
         }
     }
 
+    // CSV records may break lines inside quoted fields; an unclosed quote fails only its own record
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importExpenses(HttpServletRequest request,
+                                            @RequestParam(required = false) Integer chunkSize) throws IOException {
+        Long loggedInUserId = getLoggedInUserId();
+        int size = Math.max(1, Math.min(chunkSize != null ? chunkSize : defaultImportChunkSize, 5000));
+        ExpenseImportService.Format format = request.getContentType().startsWith("text/csv")
+                ? ExpenseImportService.Format.CSV
+                : ExpenseImportService.Format.NDJSON;
+
+        try {
+            ExpenseImportReport report = expenseImportService.importExpenses(
+                    new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8), format, loggedInUserId, size);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>("Error importing expenses: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     private String getRequestBody(HttpServletRequest request) {
         try {
             return request.getReader().lines().collect(Collectors.joining(System.lineSeparator()));
@@ -63,10 +112,25 @@ public class ExpenseController {
     }
 
     @GetMapping
-    public ResponseEntity<List<ExpenseDTO>> getUserExpenses() {
+    public ResponseEntity<List<ExpenseDTO>> getUserExpenses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount) {
         Long loggedInUserId = getLoggedInUserId();
-        List<ExpenseDTO> expenses = expenseService.getUserExpenses(loggedInUserId);
-        return ResponseEntity.ok(expenses);
+        try {
+            ExpensePage page = expenseService.getUserExpenses(loggedInUserId, cursor, limit, from, to, minAmount, maxAmount);
+            // The body stays a plain array; the cursor for the next page travels in a header
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getExpenses());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/balances")
@@ -83,9 +147,9 @@ public class ExpenseController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Expense> updateExpense(@PathVariable Long id, @RequestBody ExpenseDTO expenseDTO) {
+    public ResponseEntity<ExpenseDTO> updateExpense(@PathVariable Long id, @RequestBody ExpenseDTO expenseDTO) {
         Expense updatedExpense = expenseService.updateExpense(id, expenseDTO);
-        return ResponseEntity.ok(updatedExpense);
+        return ResponseEntity.ok(expenseService.convertToDTO(updatedExpense));
     }
 
     @DeleteMapping("/{id}")
@@ -99,16 +163,48 @@ public class ExpenseController {
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new RuntimeException("User not authenticated");
         }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
         String username = authentication.getName();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         return user.getId();
     }
+    // Without a limit every row is streamed as one JSON array, written as it is read from the database.
+    // The read-only transaction, and so a pooled connection, stays open until the client has read the
+    // last row; callers with long histories or slow links should page with ?limit= instead.
     @GetMapping("/participants")
-    public ResponseEntity<List<ExpenseParticipantDTO>> getUserExpenseParticipants() {
+    public void streamUserExpenseParticipants(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate since,
+            HttpServletResponse response) throws IOException {
         Long loggedInUserId = getLoggedInUserId();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        SequenceWriter rows = participantWriter.writeValuesAsArray(response.getOutputStream());
+        // Not closed on failure: closing writes the closing bracket, and a truncated body would parse
+        // as a complete list. Left open, the error either replaces the uncommitted response or aborts
+        // the committed one, and the client's parser sees an unterminated array.
+        expenseParticipantService.streamUserExpenseParticipants(loggedInUserId, since, participant -> {
+            try {
+                rows.write(participant);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        rows.close();
+    }
 
-        List<ExpenseParticipantDTO> participants = expenseParticipantService.getUserExpenseParticipants(loggedInUserId);
-        return ResponseEntity.ok(participants);
+    @GetMapping(value = "/participants", params = "limit")
+    public ResponseEntity<List<ExpenseParticipantDTO>> getUserExpenseParticipants(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate since,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam int limit) {
+        Long loggedInUserId = getLoggedInUserId();
+        ExpenseParticipantPage page = expenseParticipantService.getUserExpenseParticipants(loggedInUserId, since, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getParticipants());
     }
 }
\ No newline at end of file
@@ -67,7 +67,7 @@ public class GoogleAuthController {
                 });
 
         // Generate your application's JWT token
-        String jwtToken = jwtUtil.generateToken(user.getUsername());
+        String jwtToken = jwtUtil.generateToken(user.getUsername(), user.getId());
 
         // Return the JWT token
         return ResponseEntity.ok(new AuthResponse(jwtToken));
@@ -2,8 +2,11 @@ package com.expensesplitter.controller;
 
 import com.expensesplitter.dto.RoommateDTO;
 import com.expensesplitter.dto.AddRoommateDTO;
+import com.expensesplitter.dto.RoommateDeletionDTO;
 import com.expensesplitter.entity.User;
+import com.expensesplitter.exception.ResourceNotFoundException;
 import com.expensesplitter.repository.UserRepository;
+import com.expensesplitter.security.AuthenticatedUser;
 import com.expensesplitter.service.RoommateService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -47,9 +50,22 @@ public class RoommateController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteRoommate(@PathVariable Long id) {
-        roommateService.deleteRoommate(id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<RoommateDeletionDTO> deleteRoommate(@PathVariable Long id) {
+        RoommateDeletionDTO deletion = roommateService.deleteRoommate(id);
+        if (deletion.isCompleted()) {
+            return ResponseEntity.noContent().build();
+        }
+        // Hidden already; history is purged in the background, poll /{id}/deletion for progress
+        return ResponseEntity.accepted().body(deletion);
+    }
+
+    @GetMapping("/{id}/deletion")
+    public ResponseEntity<RoommateDeletionDTO> getDeletionStatus(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(roommateService.getDeletionStatus(id));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 
     private Long getLoggedInUserId() {
@@ -57,6 +73,9 @@ public class RoommateController {
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new RuntimeException("User not authenticated");
         }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
         String username = authentication.getName();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
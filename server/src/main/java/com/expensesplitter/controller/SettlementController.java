@@ -1,10 +1,13 @@
 package com.expensesplitter.controller;
 
 import com.expensesplitter.dto.SettlementDTO;
+import com.expensesplitter.dto.SettlementPlanDTO;
+import com.expensesplitter.dto.SettlementPeriodTotalDTO;
 import com.expensesplitter.entity.Settlement;
 import com.expensesplitter.entity.User;
 import com.expensesplitter.service.SettlementService;
 import com.expensesplitter.repository.UserRepository;
+import com.expensesplitter.security.AuthenticatedUser;
 import com.expensesplitter.exception.ResourceNotFoundException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -31,7 +34,7 @@ public class SettlementController {
     }
 
     @PostMapping
-    public ResponseEntity<Settlement> createSettlement(@RequestBody SettlementDTO settlementDTO) {
+    public ResponseEntity<SettlementDTO> createSettlement(@RequestBody SettlementDTO settlementDTO) {
         Long loggedInUserId = getLoggedInUserId();
         Settlement settlement = settlementService.createSettlement(
                 settlementDTO.getPayerId(),
@@ -40,15 +43,15 @@ public class SettlementController {
                 settlementDTO.getDate(),
                 loggedInUserId
         );
-        return new ResponseEntity<>(settlement, HttpStatus.CREATED);
+        return new ResponseEntity<>(settlementService.convertToDTO(settlement), HttpStatus.CREATED);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Settlement> getSettlement(@PathVariable Long id) {
+    public ResponseEntity<SettlementDTO> getSettlement(@PathVariable Long id) {
         try {
             Long loggedInUserId = getLoggedInUserId();
             Settlement settlement = settlementService.getSettlement(id, loggedInUserId);
-            return ResponseEntity.ok(settlement);
+            return ResponseEntity.ok(settlementService.convertToDTO(settlement));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.notFound().build();
         }
@@ -67,24 +70,44 @@ public class SettlementController {
         return ResponseEntity.ok(balances);
     }
 
+    @GetMapping("/plan")
+    public ResponseEntity<SettlementPlanDTO> getSettlementPlan() {
+        Long loggedInUserId = getLoggedInUserId();
+        SettlementPlanDTO plan = settlementService.getSettlementPlan(loggedInUserId);
+        return ResponseEntity.ok(plan);
+    }
+
     @GetMapping
-    public ResponseEntity<List<Settlement>> getUserSettlements() {
+    public ResponseEntity<List<SettlementDTO>> getUserSettlements() {
         Long loggedInUserId = getLoggedInUserId();
-        List<Settlement> settlements = settlementService.getSettlementsByUser(loggedInUserId);
+        List<SettlementDTO> settlements = settlementService.getSettlementsByUser(loggedInUserId);
         return ResponseEntity.ok(settlements);
     }
 
     @GetMapping("/date-range")
-    public ResponseEntity<List<Settlement>> getSettlementsByDateRange(
+    public ResponseEntity<List<SettlementDTO>> getSettlementsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
         Long loggedInUserId = getLoggedInUserId();
-        List<Settlement> settlements = settlementService.getSettlementsByUserAndDateRange(loggedInUserId, startDate, endDate);
+        List<SettlementDTO> settlements = settlementService.getSettlementsByUserAndDateRange(loggedInUserId, startDate, endDate);
         return ResponseEntity.ok(settlements);
     }
 
+    @GetMapping("/date-range/totals")
+    public ResponseEntity<List<SettlementPeriodTotalDTO>> getSettlementTotalsByPeriod(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "month") String bucket) {
+        Long loggedInUserId = getLoggedInUserId();
+        try {
+            return ResponseEntity.ok(settlementService.getSettlementTotalsByPeriod(loggedInUserId, startDate, endDate, bucket));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<Settlement> updateSettlement(@PathVariable Long id, @RequestBody SettlementDTO settlementDTO) {
+    public ResponseEntity<SettlementDTO> updateSettlement(@PathVariable Long id, @RequestBody SettlementDTO settlementDTO) {
         Long loggedInUserId = getLoggedInUserId();
         try {
             Settlement settlement = settlementService.updateSettlement(
@@ -95,7 +118,7 @@ public class SettlementController {
                     settlementDTO.getDate(),
                     loggedInUserId
             );
-            return ResponseEntity.ok(settlement);
+            return ResponseEntity.ok(settlementService.convertToDTO(settlement));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.notFound().build();
         }
@@ -124,6 +147,9 @@ public class SettlementController {
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new RuntimeException("User not authenticated");
         }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
         String username = authentication.getName();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
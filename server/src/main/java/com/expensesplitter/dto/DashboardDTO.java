@@ -0,0 +1,75 @@
+package com.expensesplitter.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+// Everything the dashboard shows on load, in one response
+public class DashboardDTO {
+    private UserDTO user;
+    private List<RoommateDTO> roommates;
+    // Most recent page of expenses; nextCursor continues it through GET /api/expenses
+    private List<ExpenseDTO> expenses;
+    private String nextCursor;
+    // Participant rows of the expenses above
+    private List<ExpenseParticipantDTO> participants;
+    private Map<Long, BigDecimal> balances;
+    private Map<String, BigDecimal> settlementSummary;
+
+    // Getters and setters
+    public UserDTO getUser() {
+        return user;
+    }
+
+    public void setUser(UserDTO user) {
+        this.user = user;
+    }
+
+    public List<RoommateDTO> getRoommates() {
+        return roommates;
+    }
+
+    public void setRoommates(List<RoommateDTO> roommates) {
+        this.roommates = roommates;
+    }
+
+    public List<ExpenseDTO> getExpenses() {
+        return expenses;
+    }
+
+    public void setExpenses(List<ExpenseDTO> expenses) {
+        this.expenses = expenses;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ExpenseParticipantDTO> getParticipants() {
+        return participants;
+    }
+
+    public void setParticipants(List<ExpenseParticipantDTO> participants) {
+        this.participants = participants;
+    }
+
+    public Map<Long, BigDecimal> getBalances() {
+        return balances;
+    }
+
+    public void setBalances(Map<Long, BigDecimal> balances) {
+        this.balances = balances;
+    }
+
+    public Map<String, BigDecimal> getSettlementSummary() {
+        return settlementSummary;
+    }
+
+    public void setSettlementSummary(Map<String, BigDecimal> settlementSummary) {
+        this.settlementSummary = settlementSummary;
+    }
+}
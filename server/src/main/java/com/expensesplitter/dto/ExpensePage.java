@@ -0,0 +1,33 @@
+package com.expensesplitter.dto;
+
+import java.util.List;
+
+public class ExpensePage {
+    private List<ExpenseDTO> expenses;
+    // Opaque keyset cursor for the next page, null when this is the last page
+    private String nextCursor;
+
+    public ExpensePage() {}
+
+    public ExpensePage(List<ExpenseDTO> expenses, String nextCursor) {
+        this.expenses = expenses;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and setters
+    public List<ExpenseDTO> getExpenses() {
+        return expenses;
+    }
+
+    public void setExpenses(List<ExpenseDTO> expenses) {
+        this.expenses = expenses;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -8,6 +8,16 @@ public class ExpenseParticipantDTO {
     private Long participantId;
     private BigDecimal shareAmount;
 
+    public ExpenseParticipantDTO() {}
+
+    // Used by the projection queries in ExpenseParticipantRepository
+    public ExpenseParticipantDTO(Long id, Long expenseId, Long participantId, BigDecimal shareAmount) {
+        this.id = id;
+        this.expenseId = expenseId;
+        this.participantId = participantId;
+        this.shareAmount = shareAmount;
+    }
+
     // Existing setters
     public void setId(Long id) {
         this.id = id;
@@ -0,0 +1,33 @@
+package com.expensesplitter.dto;
+
+import java.util.List;
+
+public class ExpenseParticipantPage {
+    private List<ExpenseParticipantDTO> participants;
+    // Row id to continue after, null when this is the last page
+    private String nextCursor;
+
+    public ExpenseParticipantPage() {}
+
+    public ExpenseParticipantPage(List<ExpenseParticipantDTO> participants, String nextCursor) {
+        this.participants = participants;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and setters
+    public List<ExpenseParticipantDTO> getParticipants() {
+        return participants;
+    }
+
+    public void setParticipants(List<ExpenseParticipantDTO> participants) {
+        this.participants = participants;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,42 @@
+package com.expensesplitter.dto;
+
+public class RoommateDeletionDTO {
+    public static final String PENDING = "pending";
+    public static final String RUNNING = "running";
+    public static final String COMPLETED = "completed";
+
+    private Long roommateId;
+    // One of pending, running or completed
+    private String status;
+    // Participation rows the roommate had when the purge started, and how many are gone so far
+    private long participationsTotal;
+    private long participationsDeleted;
+    private long expensesDeleted;
+
+    public RoommateDeletionDTO() {}
+
+    public RoommateDeletionDTO(Long roommateId, String status, long participationsTotal,
+                               long participationsDeleted, long expensesDeleted) {
+        this.roommateId = roommateId;
+        this.status = status;
+        this.participationsTotal = participationsTotal;
+        this.participationsDeleted = participationsDeleted;
+        this.expensesDeleted = expensesDeleted;
+    }
+
+    public boolean isCompleted() {
+        return COMPLETED.equals(status);
+    }
+
+    // Getters and setters
+    public Long getRoommateId() { return roommateId; }
+    public void setRoommateId(Long roommateId) { this.roommateId = roommateId; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public long getParticipationsTotal() { return participationsTotal; }
+    public void setParticipationsTotal(long participationsTotal) { this.participationsTotal = participationsTotal; }
+    public long getParticipationsDeleted() { return participationsDeleted; }
+    public void setParticipationsDeleted(long participationsDeleted) { this.participationsDeleted = participationsDeleted; }
+    public long getExpensesDeleted() { return expensesDeleted; }
+    public void setExpensesDeleted(long expensesDeleted) { this.expensesDeleted = expensesDeleted; }
+}
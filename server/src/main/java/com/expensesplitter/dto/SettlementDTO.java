@@ -4,12 +4,26 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 public class SettlementDTO {
+    // Set on responses; ignored in create and update requests
+    private Long id;
     private Long payerId;
     private Long receiverId;
     private BigDecimal amount;
     private LocalDate date;
 
+    public SettlementDTO() {}
+
+    public SettlementDTO(Long id, Long payerId, Long receiverId, BigDecimal amount, LocalDate date) {
+        this.id = id;
+        this.payerId = payerId;
+        this.receiverId = receiverId;
+        this.amount = amount;
+        this.date = date;
+    }
+
     // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
     public Long getPayerId() { return payerId; }
     public void setPayerId(Long payerId) { this.payerId = payerId; }
     public Long getReceiverId() { return receiverId; }
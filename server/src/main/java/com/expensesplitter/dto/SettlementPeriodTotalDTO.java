@@ -0,0 +1,36 @@
+package com.expensesplitter.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class SettlementPeriodTotalDTO {
+    // First day of the bucket: the day itself, or the first of the month
+    private LocalDate periodStart;
+    private Long counterpartyId;
+    private BigDecimal paid;
+    private BigDecimal received;
+    // received - paid, same sign as /balances-with-roommates
+    private BigDecimal net;
+
+    public SettlementPeriodTotalDTO() {}
+
+    public SettlementPeriodTotalDTO(LocalDate periodStart, Long counterpartyId, BigDecimal paid, BigDecimal received) {
+        this.periodStart = periodStart;
+        this.counterpartyId = counterpartyId;
+        this.paid = paid;
+        this.received = received;
+        this.net = received.subtract(paid);
+    }
+
+    // Getters and setters
+    public LocalDate getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDate periodStart) { this.periodStart = periodStart; }
+    public Long getCounterpartyId() { return counterpartyId; }
+    public void setCounterpartyId(Long counterpartyId) { this.counterpartyId = counterpartyId; }
+    public BigDecimal getPaid() { return paid; }
+    public void setPaid(BigDecimal paid) { this.paid = paid; }
+    public BigDecimal getReceived() { return received; }
+    public void setReceived(BigDecimal received) { this.received = received; }
+    public BigDecimal getNet() { return net; }
+    public void setNet(BigDecimal net) { this.net = net; }
+}
@@ -0,0 +1,25 @@
+package com.expensesplitter.dto;
+
+import java.util.List;
+
+public class SettlementPlanDTO {
+    // Suggested payments, each between the user and one counterparty and dated today; each can be
+    // posted to /api/settlements as-is
+    private List<SettlementDTO> transfers;
+    // True when no plan, even one with roommates paying each other, needs fewer transfers; false when
+    // routing through the user costs extra ones or the household is too large to check exactly
+    private boolean optimal;
+
+    public SettlementPlanDTO() {}
+
+    public SettlementPlanDTO(List<SettlementDTO> transfers, boolean optimal) {
+        this.transfers = transfers;
+        this.optimal = optimal;
+    }
+
+    // Getters and setters
+    public List<SettlementDTO> getTransfers() { return transfers; }
+    public void setTransfers(List<SettlementDTO> transfers) { this.transfers = transfers; }
+    public boolean isOptimal() { return optimal; }
+    public void setOptimal(boolean optimal) { this.optimal = optimal; }
+}
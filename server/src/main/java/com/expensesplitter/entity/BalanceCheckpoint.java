@@ -0,0 +1,37 @@
+package com.expensesplitter.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "balance_checkpoints",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "as_of", "counterparty_id"}))
+@Data
+public class BalanceCheckpoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_checkpoints_id")
+    @SequenceGenerator(name = "balance_checkpoints_id", sequenceName = "balance_checkpoints_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "counterparty_id", nullable = false)
+    private Long counterpartyId;
+
+    // Covers every expense and settlement dated on or before this day
+    @Column(name = "as_of", nullable = false)
+    private LocalDate asOf;
+
+    // Same sign convention as PairBalance
+    @Column(name = "net_amount", precision = 38, scale = 2, nullable = false)
+    private BigDecimal netAmount = BigDecimal.ZERO;
+
+    @Column(name = "settled_paid", precision = 38, scale = 2, nullable = false)
+    private BigDecimal settledPaid = BigDecimal.ZERO;
+
+    @Column(name = "settled_received", precision = 38, scale = 2, nullable = false)
+    private BigDecimal settledReceived = BigDecimal.ZERO;
+}
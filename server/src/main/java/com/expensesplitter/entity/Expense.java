@@ -2,6 +2,8 @@ package com.expensesplitter.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
@@ -10,7 +12,8 @@ import java.time.LocalDate;
 @Data
 public class Expense {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expenses_id")
+    @SequenceGenerator(name = "expenses_id", sequenceName = "expenses_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -22,8 +25,11 @@ public class Expense {
     @Column(nullable = false)
     private LocalDate date;
 
-    @ManyToOne
+    // Listing and balance reads only need the owner's id, which a lazy reference carries without a load
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 
 
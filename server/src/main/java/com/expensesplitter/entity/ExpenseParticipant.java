@@ -2,22 +2,34 @@ package com.expensesplitter.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.math.BigDecimal;
 
 @Entity
 @Table(name = "expense_participants")
+@NamedEntityGraph(name = ExpenseParticipant.WITH_PARTICIPANT, attributeNodes = @NamedAttributeNode("participant"))
 @Data
 public class ExpenseParticipant {
+    // Loads the roommate with the row, for ledger updates that need the roommate's owner
+    public static final String WITH_PARTICIPANT = "ExpenseParticipant.withParticipant";
+
+    // Sequence ids with a pooled optimizer keep Hibernate JDBC batching enabled
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_participants_id")
+    @SequenceGenerator(name = "expense_participants_id", sequenceName = "expense_participants_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "expense_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Expense expense;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "participant_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Roommate participant;
 
     @Column(precision = 38, scale = 2)
@@ -0,0 +1,35 @@
+package com.expensesplitter.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "pair_balances",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "counterparty_id"}))
+@Data
+public class PairBalance {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "counterparty_id", nullable = false)
+    private Long counterpartyId;
+
+    // Same sign convention as ExpenseService.calculateBalances
+    @Column(name = "net_amount", precision = 38, scale = 2, nullable = false)
+    private BigDecimal netAmount = BigDecimal.ZERO;
+
+    // Settlement totals kept apart so settlement-only views can be served from the ledger
+    @Column(name = "settled_paid", precision = 38, scale = 2, nullable = false)
+    private BigDecimal settledPaid = BigDecimal.ZERO;
+
+    @Column(name = "settled_received", precision = 38, scale = 2, nullable = false)
+    private BigDecimal settledReceived = BigDecimal.ZERO;
+
+    @Version
+    private Long version;
+}
@@ -2,10 +2,17 @@ package com.expensesplitter.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "roommates")
 @Data
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "roommates")
 public class Roommate {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -14,7 +21,14 @@ public class Roommate {
     @Column(nullable = false)
     private String name;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "userid")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
+
+    // Set when the roommate is deleted in the background. RoommateRepository lookups skip such rows,
+    // while expense shares can still load them until the purge job removes the row
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.expensesplitter.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Opens up DEBUG logging for the application and SQL loggers on threads serving a request that
+ * RequestLoggingContextFilter marked for debugging, leaving every other request at the configured
+ * levels. Only loggers under one of the comma separated loggerPrefixes are affected, so a debug
+ * request does not turn on DEBUG output from Spring or Hibernate internals.
+ */
+public class RequestDebugTurboFilter extends TurboFilter {
+    private String[] loggerPrefixes = new String[0];
+    private Level threshold = Level.DEBUG;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (MDC.get(RequestLoggingContextFilter.DEBUG_MDC_KEY) == null || !level.isGreaterOrEqual(threshold)) {
+            return FilterReply.NEUTRAL;
+        }
+        String name = logger.getName();
+        for (String prefix : loggerPrefixes) {
+            if (name.startsWith(prefix)) {
+                return FilterReply.ACCEPT;
+            }
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    public void setLoggerPrefixes(String loggerPrefixes) {
+        this.loggerPrefixes = loggerPrefixes.trim().split("\\s*,\\s*");
+    }
+
+    public void setThreshold(String threshold) {
+        this.threshold = Level.toLevel(threshold, Level.DEBUG);
+    }
+}
@@ -0,0 +1,67 @@
+package com.expensesplitter.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+
+/**
+ * Puts a request id into the logging MDC for every request, taken from X-Request-Id when the
+ * caller sends one, and echoes it back so a response can be matched to its log lines. A request
+ * whose X-Debug-Log header matches request-debug.token is also marked for debug logging (see
+ * RequestDebugTurboFilter); with no token configured the header is ignored.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLoggingContextFilter extends OncePerRequestFilter {
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    public static final String DEBUG_HEADER = "X-Debug-Log";
+    public static final String REQUEST_ID_MDC_KEY = "requestId";
+    public static final String DEBUG_MDC_KEY = "debug";
+
+    private static final int MAX_REQUEST_ID_LENGTH = 64;
+
+    private final byte[] debugToken;
+
+    public RequestLoggingContextFilter(@Value("${request-debug.token:}") String debugToken) {
+        this.debugToken = debugToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null || requestId.isBlank() || requestId.length() > MAX_REQUEST_ID_LENGTH) {
+            requestId = UUID.randomUUID().toString();
+        }
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+
+        MDC.put(REQUEST_ID_MDC_KEY, requestId);
+        if (isDebugRequested(request)) {
+            MDC.put(DEBUG_MDC_KEY, "true");
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(REQUEST_ID_MDC_KEY);
+            MDC.remove(DEBUG_MDC_KEY);
+        }
+    }
+
+    private boolean isDebugRequested(HttpServletRequest request) {
+        String header = request.getHeader(DEBUG_HEADER);
+        return debugToken.length > 0 && header != null
+                && MessageDigest.isEqual(debugToken, header.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,51 @@
+package com.expensesplitter.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets one in every sampleRate events from a logger through at DEBUG and below, whatever the
+ * logger's configured level. Used for org.hibernate.SQL, so production logs still show what the
+ * statements look like without a console write for each one. A sample rate of 0 or less turns
+ * sampling off and leaves the logger to its configured level.
+ */
+public class SampledLoggerFilter extends TurboFilter {
+    private final AtomicLong events = new AtomicLong();
+
+    private String loggerName;
+    private int sampleRate;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (sampleRate <= 0 || level.isGreaterOrEqual(Level.INFO) || !logger.getName().startsWith(loggerName)) {
+            return FilterReply.NEUTRAL;
+        }
+        // isDebugEnabled() checks arrive without a message; answer yes so the real call is made and sampled
+        if (format == null) {
+            return FilterReply.ACCEPT;
+        }
+        return events.getAndIncrement() % sampleRate == 0 ? FilterReply.ACCEPT : FilterReply.NEUTRAL;
+    }
+
+    @Override
+    public void start() {
+        if (loggerName == null) {
+            addError("No loggerName set for " + getName());
+            return;
+        }
+        super.start();
+    }
+
+    public void setLoggerName(String loggerName) {
+        this.loggerName = loggerName;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+}
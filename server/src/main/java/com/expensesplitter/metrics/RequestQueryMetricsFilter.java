@@ -0,0 +1,79 @@
+package com.expensesplitter.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each request ran, as http.server.requests.queries tagged with
+ * the same method and uri template as http.server.requests. Runs ahead of the security filters so
+ * the principal lookup is counted too, and just after RequestLoggingContextFilter so warnings carry
+ * the request id. Requests over query-count.warn-threshold are logged and
+ * counted in http.server.requests.queries.exceeded, which is usually a repository call in a loop.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RequestQueryMetricsFilter extends OncePerRequestFilter {
+    // Request attribute holding the final count, for tests that assert a query budget
+    public static final String QUERY_COUNT_ATTRIBUTE = RequestQueryMetricsFilter.class.getName() + ".queryCount";
+
+    private static final Logger log = LoggerFactory.getLogger(RequestQueryMetricsFilter.class);
+
+    private final QueryCounter queryCounter;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${query-count.warn-threshold:50}")
+    private int warnThreshold;
+
+    public RequestQueryMetricsFilter(QueryCounter queryCounter, MeterRegistry meterRegistry) {
+        this.queryCounter = queryCounter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        queryCounter.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int queries = queryCounter.get();
+            request.setAttribute(QUERY_COUNT_ATTRIBUTE, queries);
+
+            // Template rather than raw path, so ids in the path do not create a meter each
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            DistributionSummary.builder("http.server.requests.queries")
+                    .description("SQL statements run per request")
+                    .baseUnit("queries")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(queries);
+
+            if (warnThreshold > 0 && queries > warnThreshold) {
+                log.warn("{} {} ran {} SQL statements (threshold {})", request.getMethod(), uri, queries, warnThreshold);
+                Counter.builder("http.server.requests.queries.exceeded")
+                        .description("Requests that ran more SQL statements than query-count.warn-threshold")
+                        .tag("method", request.getMethod())
+                        .tag("uri", uri)
+                        .register(meterRegistry)
+                        .increment();
+            }
+        }
+    }
+}
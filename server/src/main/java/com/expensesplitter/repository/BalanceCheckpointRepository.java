@@ -0,0 +1,38 @@
+package com.expensesplitter.repository;
+
+import com.expensesplitter.entity.BalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+    @Query("SELECT MAX(c.asOf) FROM BalanceCheckpoint c WHERE c.userId = :userId")
+    LocalDate findLatestAsOf(@Param("userId") Long userId);
+
+    @Query("SELECT MAX(c.asOf) FROM BalanceCheckpoint c WHERE c.userId = :userId AND c.asOf < :before")
+    LocalDate findLatestAsOfBefore(@Param("userId") Long userId, @Param("before") LocalDate before);
+
+    List<BalanceCheckpoint> findByUserIdAndAsOf(Long userId, LocalDate asOf);
+
+    boolean existsByUserIdAndAsOf(Long userId, LocalDate asOf);
+
+    // Checkpoints that include history dated on or after the given day
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM BalanceCheckpoint c WHERE c.userId IN :userIds AND c.asOf >= :date")
+    int deleteByUserIdsFrom(@Param("userIds") Collection<Long> userIds, @Param("date") LocalDate date);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM BalanceCheckpoint c WHERE c.userId IN :userIds")
+    int deleteByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM BalanceCheckpoint c WHERE c.userId = :userId AND c.asOf < :date")
+    int deleteByUserIdBefore(@Param("userId") Long userId, @Param("date") LocalDate date);
+}
@@ -0,0 +1,10 @@
+package com.expensesplitter.repository;
+
+import java.math.BigDecimal;
+
+// Aggregate row: net amount accumulated against a single counterparty
+public interface CounterpartyTotal {
+    Long getCounterpartyId();
+
+    BigDecimal getAmount();
+}
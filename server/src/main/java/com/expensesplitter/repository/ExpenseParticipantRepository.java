@@ -1,16 +1,30 @@
 package com.expensesplitter.repository;
 
+import com.expensesplitter.dto.ExpenseParticipantDTO;
 import com.expensesplitter.entity.Expense;
 import com.expensesplitter.entity.ExpenseParticipant;
 import com.expensesplitter.entity.Roommate;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ExpenseParticipantRepository extends JpaRepository<ExpenseParticipant, Long> {
+    // Rows of one expense with their roommates, for reversing them out of the ledger on update and delete
+    @EntityGraph(ExpenseParticipant.WITH_PARTICIPANT)
     List<ExpenseParticipant> findByExpense(Expense expense);
     List<ExpenseParticipant> findByParticipant(Roommate participant);
     void deleteByExpense(Expense expense);
@@ -19,10 +33,80 @@ public interface ExpenseParticipantRepository extends JpaRepository<ExpenseParti
 
     // New methods
     List<ExpenseParticipant> findByParticipantId(Long participantId);
-    void deleteByParticipantId(Long participantId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM ExpenseParticipant ep WHERE ep.participant.id = :participantId")
+    int deleteByParticipantId(@Param("participantId") Long participantId);
+
     List<ExpenseParticipant> findByExpenseId(Long expenseId);
 
+    // Participant rows of the user's expenses dated on or after since, as DTOs straight from the join; keyset paged by row id
+    @Query("SELECT new com.expensesplitter.dto.ExpenseParticipantDTO(ep.id, e.id, ep.participant.id, ep.shareAmount) " +
+            "FROM ExpenseParticipant ep JOIN ep.expense e " +
+            "WHERE e.user.id = :userId AND e.date >= :since AND ep.id > :afterId ORDER BY ep.id")
+    List<ExpenseParticipantDTO> findRowsByExpenseOwnerId(@Param("userId") Long userId, @Param("since") LocalDate since,
+                                                         @Param("afterId") Long afterId, Limit limit);
+
+    // Same rows as one cursor-backed stream; must be consumed inside a transaction
+    @Query("SELECT new com.expensesplitter.dto.ExpenseParticipantDTO(ep.id, e.id, ep.participant.id, ep.shareAmount) " +
+            "FROM ExpenseParticipant ep JOIN ep.expense e " +
+            "WHERE e.user.id = :userId AND e.date >= :since ORDER BY ep.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ExpenseParticipantDTO> streamRowsByExpenseOwnerId(@Param("userId") Long userId, @Param("since") LocalDate since);
+
     Optional<ExpenseParticipant> findByExpenseAndParticipant(Expense expense, Roommate participant);
 
     Optional<ExpenseParticipant> findByExpenseAndParticipantId(Expense updatedExpense, Long participantId);
-}
\ No newline at end of file
+
+    // Sum of shares on the user's own expenses, grouped by participating roommate
+    @Query("SELECT ep.participant.id AS counterpartyId, SUM(ep.shareAmount) AS amount " +
+            "FROM ExpenseParticipant ep WHERE ep.expense.user.id = :userId " +
+            "GROUP BY ep.participant.id")
+    List<CounterpartyTotal> sumSharesByParticipantForExpenseOwner(@Param("userId") Long userId);
+
+    // Sum of shares where one of the user's roommates participates, grouped by the expense owner
+    @Query("SELECT ep.expense.user.id AS counterpartyId, SUM(ep.shareAmount) AS amount " +
+            "FROM ExpenseParticipant ep WHERE ep.participant.user.id = :userId " +
+            "GROUP BY ep.expense.user.id")
+    List<CounterpartyTotal> sumSharesByExpenseOwnerForParticipantUser(@Param("userId") Long userId);
+
+    // Same two totals restricted to expenses dated in (after, through], for checkpointed balances
+    @Query("SELECT ep.participant.id AS counterpartyId, SUM(ep.shareAmount) AS amount " +
+            "FROM ExpenseParticipant ep WHERE ep.expense.user.id = :userId " +
+            "AND ep.expense.date > :after AND ep.expense.date <= :through " +
+            "GROUP BY ep.participant.id")
+    List<CounterpartyTotal> sumSharesByParticipantForExpenseOwnerBetween(@Param("userId") Long userId,
+                                                                         @Param("after") LocalDate after,
+                                                                         @Param("through") LocalDate through);
+
+    @Query("SELECT ep.expense.user.id AS counterpartyId, SUM(ep.shareAmount) AS amount " +
+            "FROM ExpenseParticipant ep WHERE ep.participant.user.id = :userId " +
+            "AND ep.expense.date > :after AND ep.expense.date <= :through " +
+            "GROUP BY ep.expense.user.id")
+    List<CounterpartyTotal> sumSharesByExpenseOwnerForParticipantUserBetween(@Param("userId") Long userId,
+                                                                             @Param("after") LocalDate after,
+                                                                             @Param("through") LocalDate through);
+
+    // Shares for a whole page of expenses in one query, without hydrating roommates
+    @Query("SELECT ep.id AS id, ep.expense.id AS expenseId, ep.participant.id AS participantId, ep.shareAmount AS shareAmount " +
+            "FROM ExpenseParticipant ep WHERE ep.expense.id IN :expenseIds ORDER BY ep.id")
+    List<ParticipantShare> findSharesByExpenseIds(@Param("expenseIds") Collection<Long> expenseIds);
+
+    // Net share of one roommate grouped by expense owner, to take the roommate out of the ledger in one step
+    @Query("SELECT ep.expense.user.id AS counterpartyId, SUM(ep.shareAmount) AS amount " +
+            "FROM ExpenseParticipant ep WHERE ep.participant.id = :participantId " +
+            "GROUP BY ep.expense.user.id")
+    List<CounterpartyTotal> sumSharesByExpenseOwnerForParticipant(@Param("participantId") Long participantId);
+
+    // Same totals restricted to a batch of participation rows
+    @Query("SELECT ep.expense.user.id AS counterpartyId, SUM(ep.shareAmount) AS amount " +
+            "FROM ExpenseParticipant ep WHERE ep.id IN :ids " +
+            "GROUP BY ep.expense.user.id")
+    List<CounterpartyTotal> sumSharesByExpenseOwnerForIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT ep.id FROM ExpenseParticipant ep WHERE ep.participant.id = :participantId ORDER BY ep.id")
+    List<Long> findIdsByParticipantId(@Param("participantId") Long participantId, Limit limit);
+
+    @Query("SELECT COUNT(ep) FROM ExpenseParticipant ep WHERE ep.participant.id = :participantId")
+    long countByParticipantId(@Param("participantId") Long participantId);
+}
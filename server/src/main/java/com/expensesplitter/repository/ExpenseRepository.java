@@ -3,14 +3,26 @@ package com.expensesplitter.repository;
 import com.expensesplitter.entity.Expense;
 import com.expensesplitter.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ExpenseRepository extends JpaRepository<Expense, Long> {
+public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpecificationExecutor<Expense> {
     List<Expense> findByUser(User user);
 
     // Add this method to find expenses by user ID
     List<Expense> findByUserId(Long userId);
+
+    // Expenses of these owners left without participants once a roommate's shares are deleted; every
+    // expense is saved with at least one, so nothing else matches
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Expense e WHERE e.user.id IN :userIds " +
+            "AND NOT EXISTS (SELECT 1 FROM ExpenseParticipant ep WHERE ep.expense = e)")
+    int deleteWithoutParticipantsByUserIdIn(@Param("userIds") Collection<Long> userIds);
 }
\ No newline at end of file
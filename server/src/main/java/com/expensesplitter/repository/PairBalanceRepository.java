@@ -0,0 +1,35 @@
+package com.expensesplitter.repository;
+
+import com.expensesplitter.entity.PairBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface PairBalanceRepository extends JpaRepository<PairBalance, Long> {
+    List<PairBalance> findByUserId(Long userId);
+
+    // Creates a zeroed row for the pair unless it exists; a concurrent insert of the same pair waits
+    // for the other transaction and then does nothing instead of failing on the unique key
+    @Modifying
+    @Query(value = "INSERT INTO pair_balances (user_id, counterparty_id, net_amount, settled_paid, settled_received, version) " +
+            "VALUES (:userId, :counterpartyId, 0, 0, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("counterpartyId") Long counterpartyId);
+
+    // Adds to the row in place, so concurrent writers queue on the row lock instead of overwriting each other
+    @Modifying
+    @Query(value = "UPDATE pair_balances SET net_amount = net_amount + :net, settled_paid = settled_paid + :paid, " +
+            "settled_received = settled_received + :received, version = COALESCE(version, 0) + 1 " +
+            "WHERE user_id = :userId AND counterparty_id = :counterpartyId", nativeQuery = true)
+    int addToPair(@Param("userId") Long userId, @Param("counterpartyId") Long counterpartyId,
+                  @Param("net") BigDecimal net, @Param("paid") BigDecimal paid, @Param("received") BigDecimal received);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM PairBalance p WHERE p.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,14 @@
+package com.expensesplitter.repository;
+
+import java.math.BigDecimal;
+
+// Lightweight participant row: which roommate carries which share of which expense
+public interface ParticipantShare {
+    Long getId();
+
+    Long getExpenseId();
+
+    Long getParticipantId();
+
+    BigDecimal getShareAmount();
+}
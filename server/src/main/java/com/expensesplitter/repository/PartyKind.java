@@ -0,0 +1,8 @@
+package com.expensesplitter.repository;
+
+// Row of the settlement party lookup: an id and whether it was found in users or roommates
+public interface PartyKind {
+    Long getId();
+
+    String getKind();
+}
@@ -2,7 +2,13 @@ package com.expensesplitter.repository;
 
 import com.expensesplitter.entity.Roommate;
 import com.expensesplitter.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,8 +16,38 @@ import java.util.Optional;
 
 @Repository
 public interface RoommateRepository extends JpaRepository<Roommate, Long> {
-    List<Roommate> findByUser(User user);
+    // Lookups by id or owner leave out roommates that are waiting to be purged. Their results go to
+    // the query cache, which Hibernate invalidates whenever the roommates table is written
+    @Override
+    @Query("SELECT r FROM Roommate r WHERE r.id = :id AND r.deletedAt IS NULL")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<Roommate> findById(@Param("id") Long id);
+
+    @Override
+    @Query("SELECT r FROM Roommate r WHERE r.id IN :ids AND r.deletedAt IS NULL")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Roommate> findAllById(@Param("ids") Iterable<Long> ids);
+
+    @Query("SELECT r FROM Roommate r WHERE r.user = :user AND r.deletedAt IS NULL")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Roommate> findByUser(@Param("user") User user);
 
     List<Roommate> findByUserId(Long userId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    boolean existsByUserId(Long userId);
+
+    // Soft-deleted roommates, for the purge job
+    @Query(value = "SELECT id FROM roommates WHERE deleted_at IS NOT NULL ORDER BY deleted_at", nativeQuery = true)
+    List<Long> findSoftDeletedIds();
+
+    @Query(value = "SELECT COUNT(*) FROM roommates WHERE id = :id AND deleted_at IS NOT NULL", nativeQuery = true)
+    long countSoftDeletedById(@Param("id") Long id);
+
+    @Query(value = "SELECT userid FROM roommates WHERE id = :id", nativeQuery = true)
+    Long findUserIdIncludingDeleted(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "DELETE FROM roommates WHERE id = :id AND deleted_at IS NOT NULL", nativeQuery = true)
+    int deleteSoftDeletedById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.expensesplitter.repository;
+
+import java.math.BigDecimal;
+
+// Aggregate row: total settled from one payer to one receiver
+public interface SettlementPairTotal {
+    Long getPayerId();
+
+    Long getReceiverId();
+
+    BigDecimal getAmount();
+}
@@ -0,0 +1,18 @@
+package com.expensesplitter.repository;
+
+import java.math.BigDecimal;
+
+// Aggregate row: settlement totals between the user and one counterparty in one day or month
+public interface SettlementPeriodTotal {
+    Integer getYear();
+
+    Integer getMonth();
+
+    Integer getDay();
+
+    Long getCounterpartyId();
+
+    BigDecimal getPaid();
+
+    BigDecimal getReceived();
+}
@@ -1,7 +1,10 @@
 package com.expensesplitter.repository;
 
+import com.expensesplitter.dto.SettlementDTO;
 import com.expensesplitter.entity.Settlement;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -28,6 +31,64 @@ public interface SettlementRepository extends JpaRepository<Settlement, Long> {
     // Find settlements by receiver ID and date range
     List<Settlement> findByReceiverIdAndDateBetween(Long receiverId, LocalDate startDate, LocalDate endDate);
 
-    // Find settlements by payer ID or receiver ID and date range
-    List<Settlement> findByPayerIdOrReceiverIdAndDateBetween(Long userId, Long sameUserId, LocalDate startDate, LocalDate endDate);
-}
\ No newline at end of file
+    // Settlements the user paid or received, dated within [startDate, endDate]
+    @Query("SELECT s FROM Settlement s WHERE (s.payerId = :userId OR s.receiverId = :userId) " +
+            "AND s.date BETWEEN :startDate AND :endDate ORDER BY s.date, s.id")
+    List<Settlement> findByUserAndDateBetween(@Param("userId") Long userId,
+                                              @Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate);
+
+    // Same two lookups read straight into response DTOs
+    @Query("SELECT new com.expensesplitter.dto.SettlementDTO(s.id, s.payerId, s.receiverId, s.amount, s.date) " +
+            "FROM Settlement s WHERE s.payerId = :userId OR s.receiverId = :userId")
+    List<SettlementDTO> findDTOsByUser(@Param("userId") Long userId);
+
+    @Query("SELECT new com.expensesplitter.dto.SettlementDTO(s.id, s.payerId, s.receiverId, s.amount, s.date) " +
+            "FROM Settlement s WHERE (s.payerId = :userId OR s.receiverId = :userId) " +
+            "AND s.date BETWEEN :startDate AND :endDate ORDER BY s.date, s.id")
+    List<SettlementDTO> findDTOsByUserAndDateBetween(@Param("userId") Long userId,
+                                                     @Param("startDate") LocalDate startDate,
+                                                     @Param("endDate") LocalDate endDate);
+
+    // Paid and received totals per day and counterparty within [startDate, endDate]. The groups refer to
+    // select items by position so the counterparty CASE, and its user id parameter, is written once
+    @Query("SELECT extract(year FROM s.date) AS year, extract(month FROM s.date) AS month, extract(day FROM s.date) AS day, " +
+            "CASE WHEN s.payerId = :userId THEN s.receiverId ELSE s.payerId END AS counterpartyId, " +
+            "SUM(CASE WHEN s.payerId = :userId THEN s.amount ELSE 0 END) AS paid, " +
+            "SUM(CASE WHEN s.receiverId = :userId THEN s.amount ELSE 0 END) AS received " +
+            "FROM Settlement s WHERE (s.payerId = :userId OR s.receiverId = :userId) " +
+            "AND s.date BETWEEN :startDate AND :endDate " +
+            "GROUP BY 1, 2, 3, 4 " +
+            "ORDER BY 1, 2, 3, 4")
+    List<SettlementPeriodTotal> sumByDayAndCounterparty(@Param("userId") Long userId,
+                                                        @Param("startDate") LocalDate startDate,
+                                                        @Param("endDate") LocalDate endDate);
+
+    // Same totals per calendar month; day is always 1
+    @Query("SELECT extract(year FROM s.date) AS year, extract(month FROM s.date) AS month, 1 AS day, " +
+            "CASE WHEN s.payerId = :userId THEN s.receiverId ELSE s.payerId END AS counterpartyId, " +
+            "SUM(CASE WHEN s.payerId = :userId THEN s.amount ELSE 0 END) AS paid, " +
+            "SUM(CASE WHEN s.receiverId = :userId THEN s.amount ELSE 0 END) AS received " +
+            "FROM Settlement s WHERE (s.payerId = :userId OR s.receiverId = :userId) " +
+            "AND s.date BETWEEN :startDate AND :endDate " +
+            "GROUP BY 1, 2, 4 " +
+            "ORDER BY 1, 2, 4")
+    List<SettlementPeriodTotal> sumByMonthAndCounterparty(@Param("userId") Long userId,
+                                                          @Param("startDate") LocalDate startDate,
+                                                          @Param("endDate") LocalDate endDate);
+
+    // Settled totals per (payer, receiver) pair for every settlement the user is part of
+    @Query("SELECT s.payerId AS payerId, s.receiverId AS receiverId, SUM(s.amount) AS amount " +
+            "FROM Settlement s WHERE s.payerId = :userId OR s.receiverId = :userId " +
+            "GROUP BY s.payerId, s.receiverId")
+    List<SettlementPairTotal> sumAmountsByPairForUser(@Param("userId") Long userId);
+
+    // Same totals restricted to settlements dated in (after, through]
+    @Query("SELECT s.payerId AS payerId, s.receiverId AS receiverId, SUM(s.amount) AS amount " +
+            "FROM Settlement s WHERE (s.payerId = :userId OR s.receiverId = :userId) " +
+            "AND s.date > :after AND s.date <= :through " +
+            "GROUP BY s.payerId, s.receiverId")
+    List<SettlementPairTotal> sumAmountsByPairForUserBetween(@Param("userId") Long userId,
+                                                             @Param("after") LocalDate after,
+                                                             @Param("through") LocalDate through);
+}
@@ -1,13 +1,49 @@
 package com.expensesplitter.repository;
 
 import com.expensesplitter.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Looked up on most requests; findById is served by the User entity cache
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
+
+    @Query("SELECT u.id FROM User u ORDER BY u.id")
+    List<Long> findAllIds();
+
+    // Row locks held until commit, taken in id order so two lockers cannot deadlock; ids that are
+    // not users are ignored
+    @Query(value = "SELECT u.id FROM users u WHERE u.id IN (:ids) ORDER BY u.id FOR UPDATE", nativeQuery = true)
+    List<Long> lockByIds(@Param("ids") Collection<Long> ids);
+
+    // Null for an unknown id
+    @Query(value = "SELECT u.ledger_seeded FROM users u WHERE u.id = :id", nativeQuery = true)
+    Boolean isLedgerSeeded(@Param("id") Long id);
+
+    @Query(value = "SELECT u.id FROM users u WHERE u.ledger_seeded = FALSE ORDER BY u.id", nativeQuery = true)
+    List<Long> findLedgerUnseededIds();
+
+    @Modifying
+    @Query(value = "UPDATE users SET ledger_seeded = TRUE WHERE id = :id AND ledger_seeded = FALSE", nativeQuery = true)
+    int markLedgerSeeded(@Param("id") Long id);
+
+    // Classifies settlement parties in one round trip; roommates waiting to be purged do not count
+    @Query(value = "SELECT u.id AS id, 'USER' AS kind FROM users u WHERE u.id IN (:ids) " +
+            "UNION ALL " +
+            "SELECT r.id AS id, 'ROOMMATE' AS kind FROM roommates r WHERE r.id IN (:ids) AND r.deleted_at IS NULL",
+            nativeQuery = true)
+    List<PartyKind> findPartyKinds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.expensesplitter.security;
+
+import java.security.Principal;
+
+/**
+ * Principal stored in the security context for JWT-authenticated requests. Carries the numeric
+ * user id so controllers never have to look the user up by name.
+ */
+public class AuthenticatedUser implements Principal {
+    private final Long id;
+    private final String username;
+
+    public AuthenticatedUser(Long id, String username) {
+        this.id = id;
+        this.username = username;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{" +
+                "id=" + id +
+                ", username='" + username + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,62 @@
+package com.expensesplitter.security;
+
+import com.expensesplitter.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded, time-limited caches of principals by user id and by username, so the JWT filter can
+ * check that a token's user still exists without a query per request. Tokens carrying the user id
+ * claim are looked up by id; older tokens by username. Entries expire after jwt.principal-cache.ttl
+ * and are evicted when a user is renamed or deleted through UserService.
+ */
+@Component
+public class AuthenticatedUserCache {
+    private final UserRepository userRepository;
+    private final Cache<Long, AuthenticatedUser> byId;
+    private final Cache<String, AuthenticatedUser> byUsername;
+
+    public AuthenticatedUserCache(UserRepository userRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${jwt.principal-cache.max-size:10000}") long maxSize,
+                                  @Value("${jwt.principal-cache.ttl:PT5M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.byUsername = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "jwt.principals.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, byUsername, "jwt.principals");
+    }
+
+    // Returns null when the user no longer exists; misses are not cached
+    public AuthenticatedUser get(Long userId) {
+        return byId.get(userId, id -> userRepository.findById(id)
+                .map(user -> new AuthenticatedUser(user.getId(), user.getUsername()))
+                .orElse(null));
+    }
+
+    // Returns null when the user no longer exists; misses are not cached
+    public AuthenticatedUser get(String username) {
+        return byUsername.get(username, name -> userRepository.findByUsername(name)
+                .map(user -> new AuthenticatedUser(user.getId(), user.getUsername()))
+                .orElse(null));
+    }
+
+    public void evict(Long userId, String username) {
+        byId.invalidate(userId);
+        byUsername.invalidate(username);
+    }
+}
@@ -0,0 +1,79 @@
+package com.expensesplitter.service;
+
+import com.expensesplitter.repository.CounterpartyTotal;
+import com.expensesplitter.repository.ExpenseParticipantRepository;
+import com.expensesplitter.repository.SettlementPairTotal;
+import com.expensesplitter.repository.SettlementRepository;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes a user's net balance per counterparty straight from expense and settlement history.
+ * Uses a fixed number of GROUP BY queries, so the cost does not grow with the number of expenses.
+ */
+@Service
+public class BalanceAggregationService {
+    private final ExpenseParticipantRepository expenseParticipantRepository;
+    private final SettlementRepository settlementRepository;
+
+    public BalanceAggregationService(ExpenseParticipantRepository expenseParticipantRepository,
+                                     SettlementRepository settlementRepository) {
+        this.expenseParticipantRepository = expenseParticipantRepository;
+        this.settlementRepository = settlementRepository;
+    }
+
+    public Map<Long, BigDecimal> aggregateBalances(Long userId) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+
+        // Positive shareAmount means roommate is owed money by the user
+        for (CounterpartyTotal total : expenseParticipantRepository.sumSharesByParticipantForExpenseOwner(userId)) {
+            merge(balances, total.getCounterpartyId(), total.getAmount());
+        }
+
+        // Expenses where one of the user's roommates participates: negate, it's money owed to the payer
+        for (CounterpartyTotal total : expenseParticipantRepository.sumSharesByExpenseOwnerForParticipantUser(userId)) {
+            if (total.getAmount() != null) {
+                merge(balances, total.getCounterpartyId(), total.getAmount().negate());
+            }
+        }
+
+        // Settlements: paying reduces the balance, receiving increases it
+        for (SettlementPairTotal total : settlementRepository.sumAmountsByPairForUser(userId)) {
+            if (total.getAmount() == null) {
+                continue;
+            }
+            if (total.getPayerId().equals(userId)) {
+                merge(balances, total.getReceiverId(), total.getAmount().negate());
+            } else {
+                merge(balances, total.getPayerId(), total.getAmount());
+            }
+        }
+
+        return balances;
+    }
+
+    // Net balances from expenses dated in (after, through] only, in the same shape as aggregateBalances
+    public Map<Long, BigDecimal> aggregateExpenseBalances(Long userId, LocalDate after, LocalDate through) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (CounterpartyTotal total : expenseParticipantRepository.sumSharesByParticipantForExpenseOwnerBetween(userId, after, through)) {
+            merge(balances, total.getCounterpartyId(), total.getAmount());
+        }
+        for (CounterpartyTotal total : expenseParticipantRepository.sumSharesByExpenseOwnerForParticipantUserBetween(userId, after, through)) {
+            if (total.getAmount() != null) {
+                merge(balances, total.getCounterpartyId(), total.getAmount().negate());
+            }
+        }
+        return balances;
+    }
+
+    private void merge(Map<Long, BigDecimal> balances, Long counterpartyId, BigDecimal amount) {
+        if (amount != null) {
+            balances.merge(counterpartyId, amount, BigDecimal::add);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.expensesplitter.service;
+
+import com.expensesplitter.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Takes the month-end balance checkpoint for every user once the month is over. Runs daily, so a
+ * checkpoint deleted by a back-dated edit is rebuilt by the next run.
+ */
+@Component
+public class BalanceCheckpointJob {
+    private static final Logger log = LoggerFactory.getLogger(BalanceCheckpointJob.class);
+
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final UserRepository userRepository;
+
+    public BalanceCheckpointJob(BalanceCheckpointService balanceCheckpointService, UserRepository userRepository) {
+        this.balanceCheckpointService = balanceCheckpointService;
+        this.userRepository = userRepository;
+    }
+
+    @Scheduled(cron = "${balance-checkpoints.cron:0 0 4 * * *}")
+    public int checkpointAll() {
+        if (!balanceCheckpointService.isEnabled()) {
+            return 0;
+        }
+
+        LocalDate asOf = BalanceCheckpointService.latestCheckpointDate(LocalDate.now());
+        int built = 0;
+        for (Long userId : userRepository.findAllIds()) {
+            if (balanceCheckpointService.checkpoint(userId, asOf)) {
+                built++;
+            }
+        }
+
+        log.info("Balance checkpoints as of {} built for {} users", asOf, built);
+        return built;
+    }
+}
@@ -0,0 +1,184 @@
+package com.expensesplitter.service;
+
+import com.expensesplitter.entity.BalanceCheckpoint;
+import com.expensesplitter.repository.BalanceCheckpointRepository;
+import com.expensesplitter.repository.SettlementPairTotal;
+import com.expensesplitter.repository.SettlementRepository;
+import com.expensesplitter.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Month-end snapshots of each user's balance per counterparty. Replaying history from the latest
+ * checkpoint only has to read expenses and settlements dated after it, so the cost follows recent
+ * activity instead of the age of the household. Writes dated on or before a checkpoint delete it
+ * (see BalanceLedgerService.apply) and BalanceCheckpointJob builds it again.
+ *
+ * Balance reads only fall back to checkpoints when the pair balance ledger is disabled, so with the
+ * ledger on (the default) checkpoints are neither built nor invalidated.
+ *
+ * Building a checkpoint locks the user's row first, as every write does before it invalidates
+ * checkpoints (BalanceLedgerService.apply). A back-dated write that commits while a checkpoint is
+ * being replayed would otherwise find nothing to delete yet and leave the new checkpoint without
+ * its effect; with the lock, either the replay waits for the write and sees it, or the write waits
+ * for the checkpoint and deletes it.
+ */
+@Service
+public class BalanceCheckpointService {
+    // Open bounds for "no checkpoint yet" and "everything after the checkpoint"
+    private static final LocalDate BEGINNING = LocalDate.of(1, 1, 1);
+    private static final LocalDate END = LocalDate.of(9999, 12, 31);
+
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+    private final BalanceAggregationService balanceAggregationService;
+    private final SettlementRepository settlementRepository;
+    private final UserRepository userRepository;
+
+    @Value("${balance-checkpoints.enabled:true}")
+    private boolean enabled;
+
+    @Value("${balance-ledger.enabled:true}")
+    private boolean ledgerEnabled;
+
+    @Value("${balance-checkpoints.retain-months:12}")
+    private int retainMonths;
+
+    public BalanceCheckpointService(BalanceCheckpointRepository balanceCheckpointRepository,
+                                    BalanceAggregationService balanceAggregationService,
+                                    SettlementRepository settlementRepository,
+                                    UserRepository userRepository) {
+        this.balanceCheckpointRepository = balanceCheckpointRepository;
+        this.balanceAggregationService = balanceAggregationService;
+        this.settlementRepository = settlementRepository;
+        this.userRepository = userRepository;
+    }
+
+    public boolean isEnabled() {
+        return enabled && !ledgerEnabled;
+    }
+
+    // Checkpoints are only ever taken at the end of a finished month
+    public static LocalDate latestCheckpointDate(LocalDate today) {
+        return today.withDayOfMonth(1).minusDays(1);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> getBalances(Long userId) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (BalanceCheckpoint row : replay(userId, balanceCheckpointRepository.findLatestAsOf(userId), END, true).values()) {
+            balances.put(row.getCounterpartyId(), row.getNetAmount());
+        }
+        return balances;
+    }
+
+    // Settlement-only view: positive means the counterparty paid the user more than the user paid them
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> getSettlementBalances(Long userId) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (BalanceCheckpoint row : replay(userId, balanceCheckpointRepository.findLatestAsOf(userId), END, false).values()) {
+            if (row.getSettledPaid().signum() != 0 || row.getSettledReceived().signum() != 0) {
+                balances.put(row.getCounterpartyId(), row.getSettledReceived().subtract(row.getSettledPaid()));
+            }
+        }
+        return balances;
+    }
+
+    // Returns {total paid, total received} across all of the user's settlements
+    @Transactional(readOnly = true)
+    public BigDecimal[] getSettlementTotals(Long userId) {
+        BigDecimal paid = BigDecimal.ZERO;
+        BigDecimal received = BigDecimal.ZERO;
+        for (BalanceCheckpoint row : replay(userId, balanceCheckpointRepository.findLatestAsOf(userId), END, false).values()) {
+            paid = paid.add(row.getSettledPaid());
+            received = received.add(row.getSettledReceived());
+        }
+        return new BigDecimal[]{paid, received};
+    }
+
+    // Builds the checkpoint for asOf from the one before it, unless it already exists
+    @Transactional
+    public boolean checkpoint(Long userId, LocalDate asOf) {
+        userRepository.lockByIds(List.of(userId));
+        if (balanceCheckpointRepository.existsByUserIdAndAsOf(userId, asOf)) {
+            return false;
+        }
+
+        Map<Long, BalanceCheckpoint> rows = replay(userId, balanceCheckpointRepository.findLatestAsOfBefore(userId, asOf), asOf, true);
+        for (BalanceCheckpoint row : rows.values()) {
+            row.setAsOf(asOf);
+        }
+        balanceCheckpointRepository.saveAll(rows.values());
+
+        if (retainMonths > 0) {
+            balanceCheckpointRepository.deleteByUserIdBefore(userId, asOf.minusMonths(retainMonths));
+        }
+        return !rows.isEmpty();
+    }
+
+    // Drops the users' checkpoints that include history dated on or after from; null means all of them.
+    // Runs in the writer's transaction, which has locked the users (see BalanceLedgerService.apply)
+    public void invalidate(Collection<Long> userIds, LocalDate from) {
+        if (!isEnabled() || userIds.isEmpty()) {
+            return;
+        }
+        if (from == null) {
+            balanceCheckpointRepository.deleteByUserIds(userIds);
+        } else if (!from.isAfter(latestCheckpointDate(LocalDate.now()))) {
+            balanceCheckpointRepository.deleteByUserIdsFrom(userIds, from);
+        }
+    }
+
+    // Starts from the checkpoint at base (or from nothing) and folds in history dated in (base, through]
+    private Map<Long, BalanceCheckpoint> replay(Long userId, LocalDate base, LocalDate through, boolean includeExpenses) {
+        Map<Long, BalanceCheckpoint> rows = new HashMap<>();
+        LocalDate after = BEGINNING;
+        if (base != null) {
+            after = base;
+            for (BalanceCheckpoint stored : balanceCheckpointRepository.findByUserIdAndAsOf(userId, base)) {
+                BalanceCheckpoint row = rowFor(rows, userId, stored.getCounterpartyId());
+                row.setNetAmount(stored.getNetAmount());
+                row.setSettledPaid(stored.getSettledPaid());
+                row.setSettledReceived(stored.getSettledReceived());
+            }
+        }
+
+        if (includeExpenses) {
+            for (Map.Entry<Long, BigDecimal> entry : balanceAggregationService.aggregateExpenseBalances(userId, after, through).entrySet()) {
+                BalanceCheckpoint row = rowFor(rows, userId, entry.getKey());
+                row.setNetAmount(row.getNetAmount().add(entry.getValue()));
+            }
+        }
+
+        // Settlements: paying reduces the balance, receiving increases it
+        for (SettlementPairTotal total : settlementRepository.sumAmountsByPairForUserBetween(userId, after, through)) {
+            if (total.getAmount() == null) {
+                continue;
+            }
+            if (total.getPayerId().equals(userId)) {
+                BalanceCheckpoint row = rowFor(rows, userId, total.getReceiverId());
+                row.setNetAmount(row.getNetAmount().subtract(total.getAmount()));
+                row.setSettledPaid(row.getSettledPaid().add(total.getAmount()));
+            } else {
+                BalanceCheckpoint row = rowFor(rows, userId, total.getPayerId());
+                row.setNetAmount(row.getNetAmount().add(total.getAmount()));
+                row.setSettledReceived(row.getSettledReceived().add(total.getAmount()));
+            }
+        }
+
+        return rows;
+    }
+
+    private BalanceCheckpoint rowFor(Map<Long, BalanceCheckpoint> rows, Long userId, Long counterpartyId) {
+        return rows.computeIfAbsent(counterpartyId, id -> {
+            BalanceCheckpoint row = new BalanceCheckpoint();
+            row.setUserId(userId);
+            row.setCounterpartyId(id);
+            return row;
+        });
+    }
+}
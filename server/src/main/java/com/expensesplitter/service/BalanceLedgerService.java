@@ -0,0 +1,385 @@
+package com.expensesplitter.service;
+
+import com.expensesplitter.entity.ExpenseParticipant;
+import com.expensesplitter.entity.PairBalance;
+import com.expensesplitter.entity.Settlement;
+import com.expensesplitter.entity.User;
+import com.expensesplitter.repository.CounterpartyTotal;
+import com.expensesplitter.repository.PairBalanceRepository;
+import com.expensesplitter.repository.SettlementPairTotal;
+import com.expensesplitter.repository.SettlementRepository;
+import com.expensesplitter.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the pair_balances ledger: one row per (user, counterparty) holding the running net
+ * balance plus settlement totals. Expense and settlement writes push deltas here inside their own
+ * transaction, so balance reads become a lookup instead of a replay of the whole history.
+ *
+ * Users that existed before the ledger are marked unseeded (users.ledger_seeded) until
+ * BalanceLedgerVerificationJob has rebuilt their rows; until then their reads replay history.
+ * Writes and rebuilds lock the users they touch, so a rebuild cannot replay history while a write
+ * that it would miss, or whose delta it would wipe out, is in flight.
+ */
+@Service
+public class BalanceLedgerService {
+    private final PairBalanceRepository pairBalanceRepository;
+    private final BalanceAggregationService balanceAggregationService;
+    private final SettlementRepository settlementRepository;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final UserRepository userRepository;
+
+    // A user only ever goes from unseeded to seeded, so a positive answer can be kept
+    private final Set<Long> seededUsers = ConcurrentHashMap.newKeySet();
+
+    @Value("${balance-ledger.enabled:true}")
+    private boolean enabled;
+
+    public BalanceLedgerService(PairBalanceRepository pairBalanceRepository,
+                                BalanceAggregationService balanceAggregationService,
+                                SettlementRepository settlementRepository,
+                                BalanceCheckpointService balanceCheckpointService,
+                                UserRepository userRepository) {
+        this.pairBalanceRepository = pairBalanceRepository;
+        this.balanceAggregationService = balanceAggregationService;
+        this.settlementRepository = settlementRepository;
+        this.balanceCheckpointService = balanceCheckpointService;
+        this.userRepository = userRepository;
+    }
+
+    // When disabled the ledger is still written, but reads fall back to replaying history
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Whether the user's balance reads can come from the ledger rather than a replay of history
+    public boolean servesBalances(Long userId) {
+        if (!enabled) {
+            return false;
+        }
+        if (seededUsers.contains(userId)) {
+            return true;
+        }
+        if (Boolean.TRUE.equals(userRepository.isLedgerSeeded(userId))) {
+            seededUsers.add(userId);
+            return true;
+        }
+        return false;
+    }
+
+    public Changes changes() {
+        return new Changes();
+    }
+
+    public void recordParticipants(Collection<ExpenseParticipant> participants) {
+        Changes changes = changes();
+        participants.forEach(changes::addParticipant);
+        apply(changes);
+    }
+
+    public void reverseParticipants(Collection<ExpenseParticipant> participants) {
+        Changes changes = changes();
+        participants.forEach(changes::removeParticipant);
+        apply(changes);
+    }
+
+    // Takes a roommate's participation out of the ledger from per-owner totals rather than row by row
+    public void reverseParticipantTotals(Long participantId, Long participantUserId, Collection<CounterpartyTotal> sharesByOwner) {
+        Changes changes = changes();
+        for (CounterpartyTotal total : sharesByOwner) {
+            changes.removeShare(total.getCounterpartyId(), participantId, participantUserId, total.getAmount());
+        }
+        apply(changes);
+    }
+
+    public void recordSettlement(Settlement settlement) {
+        apply(changes().addSettlement(settlement.getPayerId(), settlement.getReceiverId(), settlement.getAmount(), settlement.getDate()));
+    }
+
+    public void reverseSettlement(Settlement settlement) {
+        apply(changes().removeSettlement(settlement.getPayerId(), settlement.getReceiverId(), settlement.getAmount(), settlement.getDate()));
+    }
+
+    // Must run inside the caller's write transaction. Locks the touched users first, so the write
+    // and a rebuild of any of them run one after the other. Also drops balance checkpoints the change
+    // falls into when checkpoints are in use.
+    //
+    // Deltas are added in the database rather than read, changed and saved, so concurrent writes to
+    // the same pair (an import chunk next to a UI write, a settlement next to an expense) serialize
+    // on the row lock instead of failing. Users and pairs are visited in id order so two writers
+    // always lock in the same order and cannot deadlock each other.
+    public void apply(Changes changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        userRepository.lockByIds(changes.deltas.keySet());
+        balanceCheckpointService.invalidate(changes.deltas.keySet(), changes.undated ? null : changes.earliestDate);
+
+        for (Map.Entry<Long, Map<Long, BigDecimal[]>> userEntry : new TreeMap<>(changes.deltas).entrySet()) {
+            Long userId = userEntry.getKey();
+            for (Map.Entry<Long, BigDecimal[]> entry : new TreeMap<>(userEntry.getValue()).entrySet()) {
+                BigDecimal[] delta = entry.getValue();
+                if (pairBalanceRepository.addToPair(userId, entry.getKey(), delta[NET], delta[PAID], delta[RECEIVED]) == 0) {
+                    pairBalanceRepository.insertIfAbsent(userId, entry.getKey());
+                    pairBalanceRepository.addToPair(userId, entry.getKey(), delta[NET], delta[PAID], delta[RECEIVED]);
+                }
+            }
+        }
+    }
+
+    public Map<Long, BigDecimal> getBalances(Long userId) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (PairBalance row : pairBalanceRepository.findByUserId(userId)) {
+            balances.put(row.getCounterpartyId(), row.getNetAmount());
+        }
+        return balances;
+    }
+
+    // Settlement-only view: positive means the counterparty paid the user more than the user paid them
+    public Map<Long, BigDecimal> getSettlementBalances(Long userId) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (PairBalance row : pairBalanceRepository.findByUserId(userId)) {
+            if (row.getSettledPaid().signum() != 0 || row.getSettledReceived().signum() != 0) {
+                balances.put(row.getCounterpartyId(), row.getSettledReceived().subtract(row.getSettledPaid()));
+            }
+        }
+        return balances;
+    }
+
+    // Returns {total paid, total received} across all of the user's settlements
+    public BigDecimal[] getSettlementTotals(Long userId) {
+        BigDecimal paid = BigDecimal.ZERO;
+        BigDecimal received = BigDecimal.ZERO;
+        for (PairBalance row : pairBalanceRepository.findByUserId(userId)) {
+            paid = paid.add(row.getSettledPaid());
+            received = received.add(row.getSettledReceived());
+        }
+        return new BigDecimal[]{paid, received};
+    }
+
+    // Replaces the user's rows with a replay of history and marks the user seeded
+    @Transactional
+    public void rebuild(Long userId) {
+        userRepository.lockByIds(List.of(userId));
+        pairBalanceRepository.deleteByUserId(userId);
+
+        Map<Long, PairBalance> rows = new HashMap<>();
+        for (PairBalance replayed : replay(userId)) {
+            rows.put(replayed.getCounterpartyId(), replayed);
+        }
+        pairBalanceRepository.saveAll(rows.values());
+        userRepository.markLedgerSeeded(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Drift> verify(Long userId) {
+        Map<Long, PairBalance> stored = new HashMap<>();
+        for (PairBalance row : pairBalanceRepository.findByUserId(userId)) {
+            stored.put(row.getCounterpartyId(), row);
+        }
+
+        List<Drift> drifts = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (PairBalance replayed : replay(userId)) {
+            seen.add(replayed.getCounterpartyId());
+            PairBalance row = stored.get(replayed.getCounterpartyId());
+            if (row == null) {
+                row = new PairBalance();
+            }
+            if (!sameAmounts(row, replayed)) {
+                drifts.add(new Drift(userId, replayed.getCounterpartyId(), row.getNetAmount(), replayed.getNetAmount()));
+            }
+        }
+
+        // Ledger rows with no history behind them must have been zeroed out
+        for (PairBalance row : stored.values()) {
+            if (!seen.contains(row.getCounterpartyId()) && !sameAmounts(row, new PairBalance())) {
+                drifts.add(new Drift(userId, row.getCounterpartyId(), row.getNetAmount(), BigDecimal.ZERO));
+            }
+        }
+
+        return drifts;
+    }
+
+    private List<PairBalance> replay(Long userId) {
+        Map<Long, PairBalance> rows = new HashMap<>();
+
+        for (Map.Entry<Long, BigDecimal> entry : balanceAggregationService.aggregateBalances(userId).entrySet()) {
+            rowFor(rows, userId, entry.getKey()).setNetAmount(entry.getValue());
+        }
+
+        for (SettlementPairTotal total : settlementRepository.sumAmountsByPairForUser(userId)) {
+            if (total.getAmount() == null) {
+                continue;
+            }
+            if (total.getPayerId().equals(userId)) {
+                PairBalance row = rowFor(rows, userId, total.getReceiverId());
+                row.setSettledPaid(row.getSettledPaid().add(total.getAmount()));
+            } else {
+                PairBalance row = rowFor(rows, userId, total.getPayerId());
+                row.setSettledReceived(row.getSettledReceived().add(total.getAmount()));
+            }
+        }
+
+        return new ArrayList<>(rows.values());
+    }
+
+    private PairBalance rowFor(Map<Long, PairBalance> rows, Long userId, Long counterpartyId) {
+        return rows.computeIfAbsent(counterpartyId, id -> {
+            PairBalance row = new PairBalance();
+            row.setUserId(userId);
+            row.setCounterpartyId(id);
+            return row;
+        });
+    }
+
+    private boolean sameAmounts(PairBalance a, PairBalance b) {
+        return a.getNetAmount().compareTo(b.getNetAmount()) == 0
+                && a.getSettledPaid().compareTo(b.getSettledPaid()) == 0
+                && a.getSettledReceived().compareTo(b.getSettledReceived()) == 0;
+    }
+
+    private static final int NET = 0;
+    private static final int PAID = 1;
+    private static final int RECEIVED = 2;
+
+    /**
+     * Accumulates ledger deltas so a whole write (or a batch of writes) touches each pair once.
+     */
+    public static class Changes {
+        private final Map<Long, Map<Long, BigDecimal[]>> deltas = new HashMap<>();
+
+        // Earliest history date touched; undated when shares were removed without knowing their expenses
+        private LocalDate earliestDate;
+        private boolean undated;
+
+        public Changes addParticipant(ExpenseParticipant participant) {
+            return participant(participant, false);
+        }
+
+        public Changes removeParticipant(ExpenseParticipant participant) {
+            return participant(participant, true);
+        }
+
+        public Changes removeShare(Long ownerId, Long participantId, Long participantUserId, BigDecimal share) {
+            undated = true;
+            return share(ownerId, participantId, participantUserId, share, true);
+        }
+
+        public Changes addSettlement(Long payerId, Long receiverId, BigDecimal amount, LocalDate date) {
+            touch(date);
+            return settlement(payerId, receiverId, amount, false);
+        }
+
+        public Changes removeSettlement(Long payerId, Long receiverId, BigDecimal amount, LocalDate date) {
+            touch(date);
+            return settlement(payerId, receiverId, amount, true);
+        }
+
+        public boolean isEmpty() {
+            return deltas.isEmpty();
+        }
+
+        private Changes participant(ExpenseParticipant participant, boolean reverse) {
+            touch(participant.getExpense().getDate());
+            User roommateUser = participant.getParticipant().getUser();
+            return share(participant.getExpense().getUser().getId(), participant.getParticipant().getId(),
+                    roommateUser == null ? null : roommateUser.getId(), participant.getShareAmount(), reverse);
+        }
+
+        private Changes share(Long ownerId, Long participantId, Long participantUserId, BigDecimal share, boolean reverse) {
+            if (share == null) {
+                return this;
+            }
+            if (reverse) {
+                share = share.negate();
+            }
+
+            // The expense owner sees the roommate's share directly
+            add(ownerId, participantId, NET, share);
+
+            // The user the roommate belongs to sees the opposite amount against the expense owner
+            if (participantUserId != null) {
+                add(participantUserId, ownerId, NET, share.negate());
+            }
+            return this;
+        }
+
+        private Changes settlement(Long payerId, Long receiverId, BigDecimal amount, boolean reverse) {
+            if (amount == null) {
+                return this;
+            }
+            if (reverse) {
+                amount = amount.negate();
+            }
+
+            // Paying reduces the payer's balance, receiving increases the receiver's
+            add(payerId, receiverId, NET, amount.negate());
+            add(payerId, receiverId, PAID, amount);
+            add(receiverId, payerId, NET, amount);
+            add(receiverId, payerId, RECEIVED, amount);
+            return this;
+        }
+
+        private void touch(LocalDate date) {
+            if (date == null) {
+                undated = true;
+            } else if (earliestDate == null || date.isBefore(earliestDate)) {
+                earliestDate = date;
+            }
+        }
+
+        private void add(Long userId, Long counterpartyId, int slot, BigDecimal amount) {
+            BigDecimal[] delta = deltas.computeIfAbsent(userId, id -> new HashMap<>())
+                    .computeIfAbsent(counterpartyId, id -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO});
+            delta[slot] = delta[slot].add(amount);
+        }
+    }
+
+    public static class Drift {
+        private final Long userId;
+        private final Long counterpartyId;
+        private final BigDecimal ledgerAmount;
+        private final BigDecimal replayedAmount;
+
+        public Drift(Long userId, Long counterpartyId, BigDecimal ledgerAmount, BigDecimal replayedAmount) {
+            this.userId = userId;
+            this.counterpartyId = counterpartyId;
+            this.ledgerAmount = ledgerAmount;
+            this.replayedAmount = replayedAmount;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public Long getCounterpartyId() {
+            return counterpartyId;
+        }
+
+        public BigDecimal getLedgerAmount() {
+            return ledgerAmount;
+        }
+
+        public BigDecimal getReplayedAmount() {
+            return replayedAmount;
+        }
+
+        @Override
+        public String toString() {
+            return "Drift{" +
+                    "userId=" + userId +
+                    ", counterpartyId=" + counterpartyId +
+                    ", ledgerAmount=" + ledgerAmount +
+                    ", replayedAmount=" + replayedAmount +
+                    '}';
+        }
+    }
+}
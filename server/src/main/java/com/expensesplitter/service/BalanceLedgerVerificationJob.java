@@ -0,0 +1,78 @@
+package com.expensesplitter.service;
+
+import com.expensesplitter.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Replays history against the pair_balances ledger. Seeds users whose rows are not complete yet
+ * (on start and before every verification, so a run that stopped part way is picked up again) and
+ * periodically reports (and optionally repairs) any drift between ledger and history.
+ */
+@Component
+public class BalanceLedgerVerificationJob {
+    private static final Logger log = LoggerFactory.getLogger(BalanceLedgerVerificationJob.class);
+
+    private final BalanceLedgerService balanceLedgerService;
+    private final UserRepository userRepository;
+
+    @Value("${balance-ledger.repair-drift:false}")
+    private boolean repairDrift;
+
+    public BalanceLedgerVerificationJob(BalanceLedgerService balanceLedgerService, UserRepository userRepository) {
+        this.balanceLedgerService = balanceLedgerService;
+        this.userRepository = userRepository;
+    }
+
+    // Each user is rebuilt in a transaction of its own; one that fails stays unseeded for the next run
+    @EventListener(ApplicationReadyEvent.class)
+    public int seedUnseeded() {
+        List<Long> userIds = userRepository.findLedgerUnseededIds();
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+
+        log.info("Seeding the balance ledger for {} users", userIds.size());
+        int seeded = 0;
+        for (Long userId : userIds) {
+            try {
+                balanceLedgerService.rebuild(userId);
+                seeded++;
+            } catch (RuntimeException e) {
+                log.warn("Could not seed the balance ledger for user {}", userId, e);
+            }
+        }
+        return seeded;
+    }
+
+    @Scheduled(cron = "${balance-ledger.verify-cron:0 30 3 * * *}")
+    public int verifyAll() {
+        seedUnseeded();
+
+        int drifted = 0;
+        for (Long userId : userRepository.findAllIds()) {
+            List<BalanceLedgerService.Drift> drifts = balanceLedgerService.verify(userId);
+            if (drifts.isEmpty()) {
+                continue;
+            }
+
+            drifted++;
+            for (BalanceLedgerService.Drift drift : drifts) {
+                log.warn("Balance ledger drift: {}", drift);
+            }
+            if (repairDrift) {
+                balanceLedgerService.rebuild(userId);
+            }
+        }
+
+        log.info("Balance ledger verification finished, {} users with drift", drifted);
+        return drifted;
+    }
+}
@@ -0,0 +1,59 @@
+package com.expensesplitter.service;
+
+import com.expensesplitter.dto.DashboardDTO;
+import com.expensesplitter.dto.ExpensePage;
+import com.expensesplitter.dto.ExpenseParticipantDTO;
+import com.expensesplitter.dto.UserDTO;
+import com.expensesplitter.entity.User;
+import com.expensesplitter.exception.ResourceNotFoundException;
+import com.expensesplitter.repository.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Builds the dashboard in one read-only transaction. The user is loaded once and reused from the
+ * persistence context, the expense page and its participant rows come from the same share query,
+ * and balances are read without the per-endpoint existence checks. Sub-queries run one after the
+ * other: they share the transaction's EntityManager and connection, which cannot be used from
+ * several threads.
+ */
+@Service
+public class DashboardService {
+    private final UserRepository userRepository;
+    private final RoommateService roommateService;
+    private final ExpenseService expenseService;
+    private final SettlementService settlementService;
+
+    public DashboardService(UserRepository userRepository, RoommateService roommateService,
+                            ExpenseService expenseService, SettlementService settlementService) {
+        this.userRepository = userRepository;
+        this.roommateService = roommateService;
+        this.expenseService = expenseService;
+        this.settlementService = settlementService;
+    }
+
+    @Transactional(readOnly = true)
+    public DashboardDTO getDashboard(Long userId, Integer limit) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        DashboardDTO dashboard = new DashboardDTO();
+        dashboard.setUser(new UserDTO(user.getId(), user.getUsername()));
+        dashboard.setRoommates(roommateService.getRoommates(userId));
+
+        List<ExpenseParticipantDTO> participants = new ArrayList<>();
+        ExpensePage page = expenseService.getUserExpenses(userId, null, limit, null, null, null, null, participants);
+        dashboard.setExpenses(page.getExpenses());
+        dashboard.setNextCursor(page.getNextCursor());
+        dashboard.setParticipants(participants);
+
+        // A new user without roommates has nothing to balance yet
+        dashboard.setBalances(dashboard.getRoommates().isEmpty() ? new HashMap<>() : expenseService.readBalances(userId));
+        dashboard.setSettlementSummary(settlementService.getUserBalanceSummary(userId));
+        return dashboard;
+    }
+}
@@ -0,0 +1,370 @@
+package com.expensesplitter.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns a set of net positions (in cents, positive = is owed money) into a short list of transfers
+ * that squares everyone up. Small groups are solved exactly by finding the largest partition into
+ * zero-sum subsets; larger groups use a greedy largest-debtor-pays-largest-creditor heap match,
+ * which needs at most n - 1 transfers. Settlement plans must route every transfer through the user,
+ * so they use {@link #simplifyThrough} and only ask the exact solver whether that cost any transfers.
+ */
+@Component
+public class DebtSimplifier {
+    // Exact solving is O(2^n * n); beyond this many non-zero members the greedy plan is used
+    private final int exactMaxMembers;
+
+    public DebtSimplifier(@Value("${settlement-plan.exact-max-members:12}") int exactMaxMembers) {
+        this.exactMaxMembers = Math.min(exactMaxMembers, 20);
+    }
+
+    public boolean isExact(long[] balances) {
+        return countNonZero(balances) <= exactMaxMembers;
+    }
+
+    public List<Transfer> simplify(long[] balances) {
+        return isExact(balances) ? simplifyExact(balances) : simplifyGreedy(balances);
+    }
+
+    public static List<Transfer> simplifyGreedy(long[] balances) {
+        checkBalanced(balances);
+        long[] remaining = balances.clone();
+        List<Transfer> transfers = new ArrayList<>();
+        settleGreedy(remaining, allIndices(balances.length), transfers);
+        return transfers;
+    }
+
+    public static List<Transfer> simplifyExact(long[] balances) {
+        checkBalanced(balances);
+
+        int[] members = nonZeroIndices(balances);
+        int k = members.length;
+        if (k > 20) {
+            throw new IllegalArgumentException("Too many members for an exact plan: " + k);
+        }
+        List<Transfer> transfers = new ArrayList<>();
+        if (k == 0) {
+            return transfers;
+        }
+
+        int full = (1 << k) - 1;
+        long[] sum = new long[full + 1];
+        int[] groups = zeroSumGroups(balances, members, sum);
+
+        // Walk the optimal peel order back down; each pair of consecutive zero-sum masks is one group
+        long[] remaining = balances.clone();
+        int mask = full;
+        int lastZero = full;
+        while (mask != 0) {
+            int target = groups[mask] - (sum[mask] == 0 ? 1 : 0);
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                int bit = Integer.lowestOneBit(rest);
+                if (groups[mask ^ bit] == target) {
+                    mask ^= bit;
+                    break;
+                }
+            }
+            if (sum[mask] == 0) {
+                settleGreedy(remaining, indicesOf(lastZero & ~mask, members), transfers);
+                lastZero = mask;
+            }
+        }
+
+        return transfers;
+    }
+
+    /**
+     * Fewest transfers any plan needs to clear the balances, whoever pays whom: each zero-sum group
+     * of k members takes k - 1 transfers, so this is the non-zero member count less the most groups
+     * they split into. Limited to the exact solver's 20 members.
+     */
+    public static int minTransfers(long[] balances) {
+        checkBalanced(balances);
+
+        int[] members = nonZeroIndices(balances);
+        int k = members.length;
+        if (k > 20) {
+            throw new IllegalArgumentException("Too many members for an exact plan: " + k);
+        }
+        if (k == 0) {
+            return 0;
+        }
+        int full = (1 << k) - 1;
+        return k - zeroSumGroups(balances, members, new long[full + 1])[full];
+    }
+
+    /**
+     * Settles every other member directly with {@code hub}, for when each transfer must involve that
+     * member, largest amounts first. The plan is optimal when no plan without the constraint would
+     * need fewer transfers; that is only checked for groups small enough for the exact solver, so
+     * larger groups are never reported optimal.
+     */
+    public Plan simplifyThrough(long[] balances, int hub) {
+        checkBalanced(balances);
+
+        long[] remaining = balances.clone();
+        List<Transfer> transfers = new ArrayList<>();
+        settleThrough(remaining, hub, transfers);
+
+        boolean optimal = isExact(balances) && transfers.size() == minTransfers(balances);
+        return new Plan(transfers, optimal);
+    }
+
+    // For each mask of members: its balance sum into sum[], and the most zero-sum groups it splits into
+    private static int[] zeroSumGroups(long[] balances, int[] members, long[] sum) {
+        int full = sum.length - 1;
+        int[] groups = new int[full + 1];
+        for (int mask = 1; mask <= full; mask++) {
+            int low = Integer.numberOfTrailingZeros(mask);
+            sum[mask] = sum[mask & (mask - 1)] + balances[members[low]];
+
+            // Most zero-sum groups reachable by peeling members off one at a time
+            int best = 0;
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                best = Math.max(best, groups[mask ^ Integer.lowestOneBit(rest)]);
+            }
+            groups[mask] = best + (sum[mask] == 0 ? 1 : 0);
+        }
+        return groups;
+    }
+
+    // One transfer between the hub and each other non-zero member, taking the larger heap root each time
+    private static void settleThrough(long[] remaining, int hub, List<Transfer> transfers) {
+        IndexHeap creditors = new IndexHeap(remaining, remaining.length, 1);
+        IndexHeap debtors = new IndexHeap(remaining, remaining.length, -1);
+        for (int index = 0; index < remaining.length; index++) {
+            if (index == hub) {
+                continue;
+            }
+            if (remaining[index] > 0) {
+                creditors.add(index);
+            } else if (remaining[index] < 0) {
+                debtors.add(index);
+            }
+        }
+
+        while (!creditors.isEmpty() || !debtors.isEmpty()) {
+            boolean pay = debtors.isEmpty()
+                    || (!creditors.isEmpty() && remaining[creditors.peek()] >= -remaining[debtors.peek()]);
+            int member = pay ? creditors.peek() : debtors.peek();
+            long amount = Math.abs(remaining[member]);
+
+            transfers.add(pay ? new Transfer(hub, member, amount) : new Transfer(member, hub, amount));
+            remaining[hub] += pay ? -amount : amount;
+            remaining[member] = 0;
+            if (pay) {
+                creditors.poll();
+            } else {
+                debtors.poll();
+            }
+        }
+    }
+
+    // Within one zero-sum group greedy matching needs at most (group size - 1) transfers
+    private static void settleGreedy(long[] remaining, int[] indices, List<Transfer> transfers) {
+        IndexHeap creditors = new IndexHeap(remaining, indices.length, 1);
+        IndexHeap debtors = new IndexHeap(remaining, indices.length, -1);
+        for (int index : indices) {
+            if (remaining[index] > 0) {
+                creditors.add(index);
+            } else if (remaining[index] < 0) {
+                debtors.add(index);
+            }
+        }
+
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            int creditor = creditors.peek();
+            int debtor = debtors.peek();
+            long amount = Math.min(remaining[creditor], -remaining[debtor]);
+
+            transfers.add(new Transfer(debtor, creditor, amount));
+            remaining[creditor] -= amount;
+            remaining[debtor] += amount;
+
+            // Keys only ever shrink, so the root either leaves or sinks
+            if (remaining[creditor] == 0) {
+                creditors.poll();
+            } else {
+                creditors.siftDownRoot();
+            }
+            if (remaining[debtor] == 0) {
+                debtors.poll();
+            } else {
+                debtors.siftDownRoot();
+            }
+        }
+    }
+
+    private static void checkBalanced(long[] balances) {
+        long total = 0;
+        for (long balance : balances) {
+            total = Math.addExact(total, balance);
+        }
+        if (total != 0) {
+            throw new IllegalArgumentException("Balances must sum to zero, got " + total);
+        }
+    }
+
+    private static int countNonZero(long[] balances) {
+        int count = 0;
+        for (long balance : balances) {
+            if (balance != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int[] nonZeroIndices(long[] balances) {
+        int[] indices = new int[countNonZero(balances)];
+        int next = 0;
+        for (int i = 0; i < balances.length; i++) {
+            if (balances[i] != 0) {
+                indices[next++] = i;
+            }
+        }
+        return indices;
+    }
+
+    private static int[] allIndices(int length) {
+        int[] indices = new int[length];
+        for (int i = 0; i < length; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    private static int[] indicesOf(int mask, int[] members) {
+        int[] indices = new int[Integer.bitCount(mask)];
+        int next = 0;
+        for (int rest = mask; rest != 0; rest &= rest - 1) {
+            indices[next++] = members[Integer.numberOfTrailingZeros(rest)];
+        }
+        return indices;
+    }
+
+    public static class Plan {
+        private final List<Transfer> transfers;
+        private final boolean optimal;
+
+        public Plan(List<Transfer> transfers, boolean optimal) {
+            this.transfers = transfers;
+            this.optimal = optimal;
+        }
+
+        public List<Transfer> getTransfers() {
+            return transfers;
+        }
+
+        // True when the plan is proven to need no more transfers than any other plan would
+        public boolean isOptimal() {
+            return optimal;
+        }
+    }
+
+    public static class Transfer {
+        private final int from;
+        private final int to;
+        private final long amount;
+
+        public Transfer(int from, int to, long amount) {
+            this.from = from;
+            this.to = to;
+            this.amount = amount;
+        }
+
+        // Index of the paying member
+        public int getFrom() {
+            return from;
+        }
+
+        // Index of the receiving member
+        public int getTo() {
+            return to;
+        }
+
+        // Amount in cents
+        public long getAmount() {
+            return amount;
+        }
+
+        @Override
+        public String toString() {
+            return from + " -> " + to + ": " + amount;
+        }
+    }
+
+    // Binary max-heap of member indices ordered by sign * remaining[index], without boxing
+    private static class IndexHeap {
+        private final long[] keys;
+        private final int sign;
+        private final int[] heap;
+        private int size;
+
+        IndexHeap(long[] keys, int capacity, int sign) {
+            this.keys = keys;
+            this.sign = sign;
+            this.heap = new int[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int peek() {
+            return heap[0];
+        }
+
+        void add(int index) {
+            int child = size++;
+            heap[child] = index;
+            while (child > 0) {
+                int parent = (child - 1) >>> 1;
+                if (key(heap[parent]) >= key(heap[child])) {
+                    break;
+                }
+                swap(parent, child);
+                child = parent;
+            }
+        }
+
+        void poll() {
+            heap[0] = heap[--size];
+            siftDownRoot();
+        }
+
+        void siftDownRoot() {
+            int parent = 0;
+            while (true) {
+                int largest = parent;
+                int left = 2 * parent + 1;
+                int right = left + 1;
+                if (left < size && key(heap[left]) > key(heap[largest])) {
+                    largest = left;
+                }
+                if (right < size && key(heap[right]) > key(heap[largest])) {
+                    largest = right;
+                }
+                if (largest == parent) {
+                    return;
+                }
+                swap(parent, largest);
+                parent = largest;
+            }
+        }
+
+        private long key(int index) {
+            return sign * keys[index];
+        }
+
+        private void swap(int a, int b) {
+            int tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+}
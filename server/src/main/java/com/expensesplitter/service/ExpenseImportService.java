@@ -0,0 +1,234 @@
+package com.expensesplitter.service;
+
+import com.expensesplitter.dto.ExpenseDTO;
+import com.expensesplitter.dto.ExpenseImportReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+
+/**
+ * Streams expenses from a CSV or NDJSON body and creates them in chunks, one transaction per chunk.
+ * Rows are validated with the same rules as {@link ExpenseService#createExpense} before they are
+ * queued, so a bad row is reported on its own instead of failing its chunk.
+ *
+ * A CSV record may span several lines inside a quoted field (RFC 4180); errors are reported at the
+ * line the record starts on. A quote still open at the end of the body, or after
+ * MAX_CSV_RECORD_CHARS, fails that record instead of swallowing the rows behind it.
+ */
+@Service
+public class ExpenseImportService {
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    // CSV header columns; paidBy is "id;id", splitDetails is "id:amount;id:amount"
+    private static final List<String> CSV_COLUMNS = List.of("description", "amount", "date", "splitType", "paidBy", "splitDetails");
+
+    // Longest CSV record, newlines included; far beyond any real row, short of an unclosed quote eating the file
+    private static final int MAX_CSV_RECORD_CHARS = 64 * 1024;
+
+    private final ExpenseService expenseService;
+    private final EntityManager entityManager;
+    private final ObjectReader expenseReader;
+
+    @Value("${expense-import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public ExpenseImportService(ExpenseService expenseService, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.expenseService = expenseService;
+        this.entityManager = entityManager;
+        this.expenseReader = objectMapper.readerFor(ExpenseDTO.class);
+    }
+
+    public ExpenseImportReport importExpenses(Reader body, Format format, Long loggedInUserId, int chunkSize) throws IOException {
+        ExpenseImportReport report = new ExpenseImportReport();
+        List<ExpenseDTO> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+
+        BufferedReader reader = body instanceof BufferedReader ? (BufferedReader) body : new BufferedReader(body);
+        Map<String, Integer> csvHeader = null;
+        long lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            long recordLine = lineNumber;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            // A quoted field holding a line break continues the record on the following lines
+            int quotes = format == Format.CSV ? countQuotes(line) : 0;
+            if (quotes % 2 != 0) {
+                StringBuilder record = new StringBuilder(line);
+                String next;
+                while (quotes % 2 != 0 && record.length() <= MAX_CSV_RECORD_CHARS && (next = reader.readLine()) != null) {
+                    lineNumber++;
+                    record.append('\n').append(next);
+                    quotes += countQuotes(next);
+                }
+                if (quotes % 2 != 0) {
+                    recordFailure(report, recordLine, "Unterminated quoted field");
+                    continue;
+                }
+                line = record.toString();
+            }
+
+            if (format == Format.CSV && csvHeader == null) {
+                csvHeader = parseCsvHeader(line);
+                continue;
+            }
+
+            ExpenseDTO expenseDTO;
+            try {
+                expenseDTO = format == Format.CSV ? parseCsvRow(line, csvHeader) : expenseReader.readValue(line);
+                expenseService.validateExpense(expenseDTO, loggedInUserId);
+            } catch (Exception e) {
+                recordFailure(report, recordLine, e.getMessage());
+                continue;
+            }
+
+            chunk.add(expenseDTO);
+            chunkLines.add(recordLine);
+            if (chunk.size() >= chunkSize) {
+                flush(chunk, chunkLines, loggedInUserId, report);
+            }
+        }
+        flush(chunk, chunkLines, loggedInUserId, report);
+
+        return report;
+    }
+
+    private void flush(List<ExpenseDTO> chunk, List<Long> chunkLines, Long loggedInUserId, ExpenseImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        try {
+            // Every row was validated when it was queued
+            expenseService.createValidatedExpenses(chunk, loggedInUserId);
+            report.setImported(report.getImported() + chunk.size());
+        } catch (Exception e) {
+            // The chunk's transaction rolled back, so none of its rows were stored
+            for (Long chunkLine : chunkLines) {
+                recordFailure(report, chunkLine, "Chunk rolled back: " + e.getMessage());
+            }
+        } finally {
+            // Drop the chunk's entities so a long import doesn't grow the request's persistence context
+            entityManager.clear();
+            chunk.clear();
+            chunkLines.clear();
+        }
+    }
+
+    private void recordFailure(ExpenseImportReport report, long line, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new ExpenseImportReport.RowError(line, message));
+        }
+    }
+
+    private Map<String, Integer> parseCsvHeader(String line) {
+        List<String> names = splitCsvLine(line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            header.put(names.get(i).trim().toLowerCase(), i);
+        }
+        for (String column : CSV_COLUMNS) {
+            if (!header.containsKey(column.toLowerCase())) {
+                throw new IllegalArgumentException("CSV header is missing column: " + column);
+            }
+        }
+        return header;
+    }
+
+    private ExpenseDTO parseCsvRow(String line, Map<String, Integer> header) {
+        List<String> fields = splitCsvLine(line);
+        if (fields.size() < header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " columns but found " + fields.size());
+        }
+
+        ExpenseDTO expenseDTO = new ExpenseDTO();
+        expenseDTO.setDescription(field(fields, header, "description"));
+        expenseDTO.setAmount(field(fields, header, "amount"));
+        expenseDTO.setDate(field(fields, header, "date"));
+        expenseDTO.setSplitType(field(fields, header, "splittype"));
+
+        List<Long> paidBy = new ArrayList<>();
+        for (String id : field(fields, header, "paidby").split(";")) {
+            if (!id.isBlank()) {
+                paidBy.add(Long.parseLong(id.trim()));
+            }
+        }
+        expenseDTO.setPaidBy(paidBy);
+
+        Map<Long, String> splitDetails = new LinkedHashMap<>();
+        for (String entry : field(fields, header, "splitdetails").split(";")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Split detail must look like id:amount, got: " + entry);
+            }
+            splitDetails.put(Long.parseLong(entry.substring(0, separator).trim()), entry.substring(separator + 1).trim());
+        }
+        expenseDTO.setSplitDetails(splitDetails);
+        expenseDTO.setSplitWith(new ArrayList<>(splitDetails.keySet()));
+
+        return expenseDTO;
+    }
+
+    private String field(List<String> fields, Map<String, Integer> header, String column) {
+        return fields.get(header.get(column)).trim();
+    }
+
+    // Doubled quotes inside a quoted field count twice, so an odd total means a field is still open
+    private static int countQuotes(String line) {
+        int quotes = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes;
+    }
+
+    // Splits one CSV record, honouring double quotes and "" escapes inside quoted fields
+    private List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+
+        return fields;
+    }
+}
@@ -1,49 +1,61 @@
 package com.expensesplitter.service;
 
 import com.expensesplitter.dto.ExpenseParticipantDTO;
-import com.expensesplitter.entity.Expense;
-import com.expensesplitter.entity.ExpenseParticipant;
+import com.expensesplitter.dto.ExpenseParticipantPage;
 import com.expensesplitter.repository.ExpenseParticipantRepository;
-import com.expensesplitter.repository.ExpenseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+/**
+ * Participant rows of a user's expenses, read as DTOs by one projection query. Rows come in
+ * ascending row id order, so a page ends at the id the next page starts after.
+ */
 @Service
 public class ExpenseParticipantService {
+    // Stands in for "no since filter", so the queries need no null checks
+    private static final LocalDate ALL_DATES = LocalDate.of(1, 1, 1);
+
     private final ExpenseParticipantRepository expenseParticipantRepository;
-    private final ExpenseRepository expenseRepository;
+
+    @Value("${expenses.participants.page.max-size:5000}")
+    private int maxPageSize;
 
     @Autowired
-    public ExpenseParticipantService(ExpenseParticipantRepository expenseParticipantRepository,
-                                     ExpenseRepository expenseRepository) {
+    public ExpenseParticipantService(ExpenseParticipantRepository expenseParticipantRepository) {
         this.expenseParticipantRepository = expenseParticipantRepository;
-        this.expenseRepository = expenseRepository;
     }
 
-    public List<ExpenseParticipantDTO> getUserExpenseParticipants(Long userId) {
-        // Use the new findByUserId method
-        List<Expense> userExpenses = expenseRepository.findByUserId(userId);
-
-        List<ExpenseParticipant> participants = new ArrayList<>();
-        for (Expense expense : userExpenses) {
-            participants.addAll(expenseParticipantRepository.findByExpense(expense));
+    // One page of rows after the given row id (null for the first page)
+    @Transactional(readOnly = true)
+    public ExpenseParticipantPage getUserExpenseParticipants(Long userId, LocalDate since, Long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        // Fetch one extra row to learn whether another page exists
+        List<ExpenseParticipantDTO> rows = expenseParticipantRepository.findRowsByExpenseOwnerId(userId,
+                since == null ? ALL_DATES : since, afterId == null ? 0L : afterId, Limit.of(pageSize + 1));
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = rows.get(pageSize - 1).getId().toString();
         }
-
-        return participants.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return new ExpenseParticipantPage(rows, nextCursor);
     }
 
-    private ExpenseParticipantDTO convertToDTO(ExpenseParticipant participant) {
-        ExpenseParticipantDTO dto = new ExpenseParticipantDTO();
-        dto.setId(participant.getId());
-        dto.setExpenseId(participant.getExpense().getId());
-        dto.setParticipantId(participant.getParticipant().getId());
-        dto.setShareAmount(participant.getShareAmount());
-        return dto;
+    // Every row, handed to the consumer as it is read so the full history is never held in memory.
+    // The transaction and its connection are held until the consumer has taken the last row.
+    @Transactional(readOnly = true)
+    public void streamUserExpenseParticipants(Long userId, LocalDate since, Consumer<ExpenseParticipantDTO> consumer) {
+        try (Stream<ExpenseParticipantDTO> rows =
+                     expenseParticipantRepository.streamRowsByExpenseOwnerId(userId, since == null ? ALL_DATES : since)) {
+            rows.forEach(consumer);
+        }
     }
 }
@@ -1,206 +1,303 @@
 package com.expensesplitter.service;
 
 import com.expensesplitter.dto.ExpenseDTO;
+import com.expensesplitter.dto.ExpensePage;
+import com.expensesplitter.dto.ExpenseParticipantDTO;
 import com.expensesplitter.entity.*;
 import com.expensesplitter.repository.*;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.criteria.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 @Service
+@Timed(value = "expense.service", description = "ExpenseService calls", histogram = true)
 public class ExpenseService {
+    private static final Logger log = LoggerFactory.getLogger(ExpenseService.class);
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "date", "id");
+
     private final ExpenseRepository expenseRepository;
     private final ExpenseParticipantRepository expenseParticipantRepository;
     private final UserRepository userRepository;
     private final RoommateRepository roommateRepository;
 
-    private final SettlementRepository settlementRepository;
+    private final BalanceAggregationService balanceAggregationService;
+    private final BalanceLedgerService balanceLedgerService;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final ExpenseShareCalculator expenseShareCalculator;
+    private final DistributionSummary participantsPerExpense;
+
+    @Value("${expenses.page.default-size:100}")
+    private int defaultPageSize;
+
+    @Value("${expenses.page.max-size:500}")
+    private int maxPageSize;
 
     public ExpenseService(ExpenseRepository expenseRepository,
                           ExpenseParticipantRepository expenseParticipantRepository,
                           UserRepository userRepository,
                           RoommateRepository roommateRepository,
-                          SettlementRepository settlementRepository) {
+                          BalanceAggregationService balanceAggregationService,
+                          BalanceLedgerService balanceLedgerService,
+                          BalanceCheckpointService balanceCheckpointService,
+                          ExpenseShareCalculator expenseShareCalculator,
+                          MeterRegistry meterRegistry) {
         this.expenseRepository = expenseRepository;
         this.expenseParticipantRepository = expenseParticipantRepository;
         this.userRepository = userRepository;
         this.roommateRepository = roommateRepository;
-        this.settlementRepository=settlementRepository;
+        this.balanceAggregationService = balanceAggregationService;
+        this.balanceLedgerService = balanceLedgerService;
+        this.balanceCheckpointService = balanceCheckpointService;
+        this.expenseShareCalculator = expenseShareCalculator;
+        this.participantsPerExpense = DistributionSummary.builder("expenses.participants")
+                .description("Participants an expense is split between")
+                .register(meterRegistry);
     }
 
 
     @Transactional
     public Expense createExpense(ExpenseDTO expenseDTO, Long loggedInUserId) {
+        return createExpenses(List.of(expenseDTO), loggedInUserId).get(0);
+    }
+
+    /**
+     * Creates several expenses for the same user in one transaction. Roommates are resolved with a
+     * single query for the whole batch and all expense and participant rows go out as JDBC batches.
+     */
+    @Transactional
+    public List<Expense> createExpenses(List<ExpenseDTO> expenseDTOs, Long loggedInUserId) {
+        for (ExpenseDTO expenseDTO : expenseDTOs) {
+            validateExpense(expenseDTO, loggedInUserId);
+        }
+        return createValidatedExpenses(expenseDTOs, loggedInUserId);
+    }
+
+    // For callers that already ran validateExpense on every row, like the bulk import
+    @Transactional
+    List<Expense> createValidatedExpenses(List<ExpenseDTO> expenseDTOs, Long loggedInUserId) {
         User loggedInUser = userRepository.findById(loggedInUserId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        Expense expense = new Expense();
-        expense.setDescription(expenseDTO.getDescription());
-        expense.setAmount(new BigDecimal(expenseDTO.getAmount()));
-        expense.setDate(LocalDate.parse(expenseDTO.getDate()));
-        expense.setSplitType(Expense.SplitType.valueOf(expenseDTO.getSplitType().toUpperCase()));
-        expense.setUser(loggedInUser);
-        expense.setIsPayer(expenseDTO.getPaidBy().contains(loggedInUserId));
+        List<Expense> expenses = new ArrayList<>(expenseDTOs.size());
+        List<Map<Long, BigDecimal>> sharesPerExpense = new ArrayList<>(expenseDTOs.size());
+        Set<Long> participantIds = new HashSet<>();
+
+        for (ExpenseDTO expenseDTO : expenseDTOs) {
+            Expense expense = new Expense();
+            expense.setDescription(expenseDTO.getDescription());
+            expense.setAmount(new BigDecimal(expenseDTO.getAmount()));
+            expense.setDate(LocalDate.parse(expenseDTO.getDate()));
+            expense.setSplitType(Expense.SplitType.valueOf(expenseDTO.getSplitType().toUpperCase()));
+            expense.setUser(loggedInUser);
+            expense.setIsPayer(expenseDTO.getPaidBy().contains(loggedInUserId));
+            expenses.add(expense);
+
+            // Participant shares keyed by roommate id, persisted together once every split is known
+            Map<Long, BigDecimal> shares = expenseShareCalculator.computeShares(expenseDTO, loggedInUserId, expense.getAmount(), expense.getSplitType());
+            sharesPerExpense.add(shares);
+            participantsPerExpense.record(expenseDTO.getSplitDetails().size());
+            participantIds.addAll(shares.keySet());
+        }
 
-        Expense savedExpense = expenseRepository.save(expense);
+        expenseRepository.saveAll(expenses);
+        saveExpenseParticipants(expenses, sharesPerExpense, participantIds);
 
-        BigDecimal totalAmount = new BigDecimal(expenseDTO.getAmount());
+        return expenses;
+    }
 
-        if (expense.getSplitType() == Expense.SplitType.EQUAL) {
-            handleEqualSplit(expenseDTO, loggedInUserId, savedExpense, totalAmount);
-        } else if (expense.getSplitType() == Expense.SplitType.CUSTOM) {
-            handleCustomSplit(expenseDTO, loggedInUserId, savedExpense);
+    /**
+     * Checks an incoming expense against the split rules before anything is written.
+     */
+    public void validateExpense(ExpenseDTO expenseDTO, Long loggedInUserId) {
+        // The column is NOT NULL; an empty description is still accepted, as it always was
+        if (expenseDTO.getDescription() == null) {
+            throw new IllegalArgumentException("Description is required");
         }
-
-        // Validate total amount
-        BigDecimal totalPaid = expenseDTO.getSplitDetails().values().stream()
-                .map(BigDecimal::new)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        if (totalPaid.compareTo(totalAmount) != 0) {
-            throw new RuntimeException("The sum of paid amounts (" + totalPaid + ") does not match the total expense amount (" + totalAmount + ")");
+        if (expenseDTO.getPaidBy() == null || expenseDTO.getPaidBy().isEmpty()) {
+            throw new IllegalArgumentException("At least one payer is required");
+        }
+        if (expenseDTO.getSplitDetails() == null || expenseDTO.getSplitDetails().isEmpty()) {
+            throw new IllegalArgumentException("Split details are required");
         }
 
-        return savedExpense;
-    }
-
-    private void handleEqualSplit(ExpenseDTO expenseDTO, Long loggedInUserId, Expense savedExpense, BigDecimal totalAmount) {
-        int participantCount = expenseDTO.getSplitDetails().size();
-        BigDecimal equalShare = totalAmount.divide(new BigDecimal(participantCount), 2, RoundingMode.DOWN);
-        BigDecimal remainder = totalAmount.subtract(equalShare.multiply(new BigDecimal(participantCount)));
+        BigDecimal totalAmount;
+        try {
+            totalAmount = new BigDecimal(expenseDTO.getAmount());
+            LocalDate.parse(expenseDTO.getDate());
+        } catch (NullPointerException | NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid amount or date");
+        }
 
-        Map<Long, BigDecimal> preciseShares = new HashMap<>();
-        for (Long participantId : expenseDTO.getSplitDetails().keySet()) {
-            preciseShares.put(participantId, equalShare);
+        Expense.SplitType splitType;
+        try {
+            splitType = Expense.SplitType.valueOf(expenseDTO.getSplitType().toUpperCase());
+        } catch (NullPointerException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid split type: " + expenseDTO.getSplitType());
         }
 
-        // Distribute the remainder cents
-        for (int i = 0; i < remainder.multiply(new BigDecimal(100)).intValue(); i++) {
-            Long participantId = (Long) preciseShares.keySet().toArray()[i % participantCount];
-            preciseShares.put(participantId, preciseShares.get(participantId).add(new BigDecimal("0.01")));
+        // Both split handlers read the logged-in user's own entry, except a custom split the user paid
+        boolean userPaidFirst = loggedInUserId.equals(expenseDTO.getPaidBy().get(0));
+        if ((splitType == Expense.SplitType.EQUAL || !userPaidFirst)
+                && !expenseDTO.getSplitDetails().containsKey(loggedInUserId)) {
+            throw new IllegalArgumentException("Split details must include the logged-in user");
+        }
+        if (splitType == Expense.SplitType.EQUAL && !expenseDTO.getSplitDetails().keySet().containsAll(expenseDTO.getPaidBy())) {
+            throw new IllegalArgumentException("Every payer must appear in the split details");
         }
 
-        BigDecimal userPaidAmount = new BigDecimal(expenseDTO.getSplitDetails().get(loggedInUserId));
-        BigDecimal userShouldPay = preciseShares.get(loggedInUserId);
+        // Validate total amount
+        BigDecimal totalPaid;
+        try {
+            totalPaid = expenseDTO.getSplitDetails().values().stream()
+                    .map(BigDecimal::new)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        } catch (NullPointerException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount in split details");
+        }
 
-        boolean isMultiplePayers = expenseDTO.getPaidBy().size() > 1;
+        // Shares are calculated in whole cents
+        SplitCalculator.toCents(totalAmount);
+        for (String amount : expenseDTO.getSplitDetails().values()) {
+            SplitCalculator.parseCents(amount);
+        }
 
-        if (isMultiplePayers) {
-            handleMultiplePayers(expenseDTO, loggedInUserId, savedExpense, preciseShares, userPaidAmount, userShouldPay);
-        } else {
-            handleSinglePayer(expenseDTO, loggedInUserId, savedExpense, preciseShares, userPaidAmount, userShouldPay);
+        if (totalPaid.compareTo(totalAmount) != 0) {
+            throw new IllegalArgumentException("The sum of paid amounts (" + totalPaid + ") does not match the total expense amount (" + totalAmount + ")");
         }
     }
 
-    private void handleCustomSplit(ExpenseDTO expenseDTO, Long loggedInUserId, Expense savedExpense) {
-        Long payerId = expenseDTO.getPaidBy().get(0);
-
-        if (payerId.equals(loggedInUserId)) {
-            // User is the payer
-            for (Map.Entry<Long, String> entry : expenseDTO.getSplitDetails().entrySet()) {
-                Long participantId = entry.getKey();
-                if (!participantId.equals(loggedInUserId)) {
-                    BigDecimal participantShare = new BigDecimal(entry.getValue());
-                    BigDecimal debt = participantShare.negate(); // User is owed this amount
-                    saveExpenseParticipant(savedExpense, participantId, debt);
-                }
-            }
-        } else {
-            // Roommate is the payer
-            BigDecimal userShare = new BigDecimal(expenseDTO.getSplitDetails().get(loggedInUserId));
-            BigDecimal userDebt = userShare; // User owes this amount to the payer
-            saveExpenseParticipant(savedExpense, payerId, userDebt);
+    private void saveExpenseParticipants(List<Expense> expenses, List<Map<Long, BigDecimal>> sharesPerExpense,
+                                         Set<Long> participantIds) {
+        if (participantIds.isEmpty()) {
+            return;
         }
-    }
 
-    private void handleMultiplePayers(ExpenseDTO expenseDTO, Long loggedInUserId, Expense savedExpense,
-                                      Map<Long, BigDecimal> preciseShares, BigDecimal userPaidAmount, BigDecimal userShouldPay) {
-        for (Map.Entry<Long, String> entry : expenseDTO.getSplitDetails().entrySet()) {
-            Long participantId = entry.getKey();
-            if (!participantId.equals(loggedInUserId)) {
-                BigDecimal participantPaidAmount = new BigDecimal(entry.getValue());
-                BigDecimal participantShouldPay = preciseShares.get(participantId);
-
-                BigDecimal userOwesParticipant = BigDecimal.ZERO;
-
-                if (userPaidAmount.compareTo(userShouldPay) < 0) {
-                    // User underpaid, might owe the participant
-                    BigDecimal userUnderpayment = userShouldPay.subtract(userPaidAmount);
-                    BigDecimal participantOverpayment = participantPaidAmount.subtract(participantShouldPay);
-                    userOwesParticipant = participantOverpayment.min(userUnderpayment);
-                } else if (participantPaidAmount.compareTo(participantShouldPay) < 0) {
-                    // Participant underpaid, user might be owed
-                    BigDecimal participantUnderpayment = participantShouldPay.subtract(participantPaidAmount);
-                    BigDecimal userOverpayment = userPaidAmount.subtract(userShouldPay);
-                    userOwesParticipant = participantUnderpayment.negate().max(userOverpayment.negate());
-                }
+        Map<Long, Roommate> roommates = new HashMap<>();
+        for (Roommate roommate : roommateRepository.findAllById(participantIds)) {
+            roommates.put(roommate.getId(), roommate);
+        }
 
-                if (userOwesParticipant.compareTo(BigDecimal.ZERO) != 0) {
-                    saveExpenseParticipant(savedExpense, participantId, userOwesParticipant);
+        List<ExpenseParticipant> participants = new ArrayList<>();
+        for (int i = 0; i < expenses.size(); i++) {
+            for (Map.Entry<Long, BigDecimal> entry : sharesPerExpense.get(i).entrySet()) {
+                Roommate roommate = roommates.get(entry.getKey());
+                if (roommate == null) {
+                    // Handle the case where the participantId is not a roommate (might be the user)
+                    log.debug("Participant {} is not a roommate, skipping (it might be the user)", entry.getKey());
+                    continue;
                 }
+
+                ExpenseParticipant participant = new ExpenseParticipant();
+                participant.setExpense(expenses.get(i));
+                participant.setParticipant(roommate);
+                participant.setShareAmount(entry.getValue());
+                participants.add(participant);
             }
         }
+
+        expenseParticipantRepository.saveAll(participants);
+        balanceLedgerService.recordParticipants(participants);
     }
 
-    private void handleSinglePayer(ExpenseDTO expenseDTO, Long loggedInUserId, Expense savedExpense,
-                                   Map<Long, BigDecimal> preciseShares, BigDecimal userPaidAmount, BigDecimal userShouldPay) {
-        Long payerId = expenseDTO.getPaidBy().get(0);
-        BigDecimal paidAmount = new BigDecimal(expenseDTO.getSplitDetails().get(payerId));
-
-        if (payerId.equals(loggedInUserId)) {
-            // User is the payer
-            for (Map.Entry<Long, String> entry : expenseDTO.getSplitDetails().entrySet()) {
-                Long participantId = entry.getKey();
-                if (!participantId.equals(loggedInUserId)) {
-                    BigDecimal participantShare = preciseShares.get(participantId);
-                    BigDecimal debt = participantShare.negate(); // User is owed this amount
-                    saveExpenseParticipant(savedExpense, participantId, debt);
-                }
-            }
-        } else {
-            // Roommate is the payer
-            BigDecimal userShare = preciseShares.get(loggedInUserId);
-            BigDecimal userDebt = userShare; // User owes this amount to the payer
-            saveExpenseParticipant(savedExpense, payerId, userDebt);
-        }
+    /**
+     * Returns one page of the user's expenses, newest first, using (date, id) keyset pagination.
+     * Cost is bounded by the page size: one query for the expenses and one for all of their shares.
+     */
+    @Transactional(readOnly = true)
+    public ExpensePage getUserExpenses(Long userId, String cursor, Integer limit,
+                                       LocalDate from, LocalDate to, BigDecimal minAmount, BigDecimal maxAmount) {
+        return getUserExpenses(userId, cursor, limit, from, to, minAmount, maxAmount, null);
     }
-    private void saveExpenseParticipant(Expense expense, Long participantId, BigDecimal amount) {
-        Optional<Roommate> roommateOptional = roommateRepository.findById(participantId);
 
-        if (roommateOptional.isPresent()) {
-            Roommate roommate = roommateOptional.get();
-            ExpenseParticipant participant = new ExpenseParticipant();
-            participant.setExpense(expense);
-            participant.setParticipant(roommate);
-            participant.setShareAmount(amount);
-            expenseParticipantRepository.save(participant);
-        } else {
-            // Handle the case where the participantId is not a roommate (might be the user)
-            System.out.println("Participant with ID " + participantId + " is not a roommate. This might be the user.");
+    // As above, also adding the participant rows behind the page to participants, from the same share query
+    @Transactional(readOnly = true)
+    public ExpensePage getUserExpenses(Long userId, String cursor, Integer limit, LocalDate from, LocalDate to,
+                                       BigDecimal minAmount, BigDecimal maxAmount,
+                                       List<ExpenseParticipantDTO> participants) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        ExpenseCursor after = cursor == null || cursor.isBlank() ? null : ExpenseCursor.decode(cursor);
+
+        // Fetch one extra row to learn whether another page exists
+        Specification<Expense> spec = expenseFilter(userId, from, to, minAmount, maxAmount, after);
+        List<Expense> expenses = expenseRepository.findBy(spec, query -> query
+                .sortBy(NEWEST_FIRST)
+                .limit(pageSize + 1)
+                .all());
+
+        String nextCursor = null;
+        if (expenses.size() > pageSize) {
+            expenses = expenses.subList(0, pageSize);
+            Expense last = expenses.get(pageSize - 1);
+            nextCursor = new ExpenseCursor(last.getDate(), last.getId()).encode();
         }
+
+        return new ExpensePage(convertToDTOs(expenses, participants), nextCursor);
     }
 
-    public List<ExpenseDTO> getUserExpenses(Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
-        List<Expense> expenses = expenseRepository.findByUser(user);
-        return expenses.stream().map(this::convertToDTO).toList();
+    private Specification<Expense> expenseFilter(Long userId, LocalDate from, LocalDate to,
+                                                 BigDecimal minAmount, BigDecimal maxAmount, ExpenseCursor after) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("user").get("id"), userId));
+            if (from != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("date"), from));
+            }
+            if (to != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("date"), to));
+            }
+            if (minAmount != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("amount"), minAmount));
+            }
+            if (maxAmount != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("amount"), maxAmount));
+            }
+            if (after != null) {
+                predicates.add(cb.or(
+                        cb.lessThan(root.get("date"), after.date),
+                        cb.and(cb.equal(root.get("date"), after.date), cb.lessThan(root.get("id"), after.id))));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
     }
 
+    @Transactional(readOnly = true)
     public ExpenseDTO getExpenseById(Long id) {
         Expense expense = expenseRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Expense not found"));
         return convertToDTO(expense);
     }
 
+    // Response form of a created or updated expense, with its shares read back in one query
+    @Transactional(readOnly = true)
+    public ExpenseDTO convertToDTO(Expense expense) {
+        return convertToDTOs(List.of(expense), null).get(0);
+    }
+
     @Transactional
     public Expense updateExpense(Long id, ExpenseDTO expenseDTO) {
         Expense expense = expenseRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Expense not found"));
 
+        // Take the old shares back out of the ledger while the expense still has its old date
+        List<ExpenseParticipant> previousParticipants = expenseParticipantRepository.findByExpense(expense);
+        balanceLedgerService.reverseParticipants(previousParticipants);
+        expenseParticipantRepository.deleteAllInBatch(previousParticipants);
+
         expense.setDescription(expenseDTO.getDescription());
         expense.setAmount(new BigDecimal(expenseDTO.getAmount()));
         expense.setDate(LocalDate.parse(expenseDTO.getDate()));
@@ -209,9 +306,16 @@ public class ExpenseService {
 
         Expense updatedExpense = expenseRepository.save(expense);
 
-        // Update ExpenseParticipant entries
-        expenseParticipantRepository.deleteByExpense(updatedExpense);
+        // Recreate the ExpenseParticipant entries
+        // Resolve every participant roommate in one query
+        Long ownerId = updatedExpense.getUser().getId();
+        Map<Long, Roommate> roommates = new HashMap<>();
+        for (Roommate roommate : roommateRepository.findAllById(expenseDTO.getSplitDetails().keySet())) {
+            roommates.put(roommate.getId(), roommate);
+        }
+        Roommate ownerRoommate = null;
 
+        List<ExpenseParticipant> newParticipants = new ArrayList<>();
         for (Map.Entry<Long, String> entry : expenseDTO.getSplitDetails().entrySet()) {
             Long participantId = entry.getKey();
             BigDecimal shareAmount = new BigDecimal(entry.getValue());
@@ -219,25 +323,64 @@ public class ExpenseService {
             ExpenseParticipant participant = new ExpenseParticipant();
             participant.setExpense(updatedExpense);
 
-            if (participantId.equals(updatedExpense.getUser().getId())) {
-                List<Roommate> userRoommates = roommateRepository.findByUser(updatedExpense.getUser());
-                if (userRoommates.isEmpty()) {
-                    throw new RuntimeException("Roommate not found for expense creator");
+            if (participantId.equals(ownerId)) {
+                if (ownerRoommate == null) {
+                    List<Roommate> userRoommates = roommateRepository.findByUser(updatedExpense.getUser());
+                    if (userRoommates.isEmpty()) {
+                        throw new RuntimeException("Roommate not found for expense creator");
+                    }
+                    ownerRoommate = userRoommates.get(0);
                 }
-                participant.setParticipant(userRoommates.get(0));
+                participant.setParticipant(ownerRoommate);
             } else {
-                participant.setParticipant(roommateRepository.findById(participantId)
-                        .orElseThrow(() -> new RuntimeException("Roommate not found")));
+                Roommate roommate = roommates.get(participantId);
+                if (roommate == null) {
+                    throw new RuntimeException("Roommate not found");
+                }
+                participant.setParticipant(roommate);
             }
 
             participant.setShareAmount(shareAmount);
-            expenseParticipantRepository.save(participant);
+            newParticipants.add(participant);
         }
+        expenseParticipantRepository.saveAll(newParticipants);
+        balanceLedgerService.recordParticipants(newParticipants);
+        participantsPerExpense.record(newParticipants.size());
 
         return updatedExpense;
     }
 
-    private ExpenseDTO convertToDTO(Expense expense) {
+    private List<ExpenseDTO> convertToDTOs(List<Expense> expenses, List<ExpenseParticipantDTO> participants) {
+        if (expenses.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> expenseIds = new ArrayList<>(expenses.size());
+        for (Expense expense : expenses) {
+            expenseIds.add(expense.getId());
+        }
+
+        Map<Long, List<ParticipantShare>> sharesByExpense = new HashMap<>();
+        for (ParticipantShare share : expenseParticipantRepository.findSharesByExpenseIds(expenseIds)) {
+            sharesByExpense.computeIfAbsent(share.getExpenseId(), id -> new ArrayList<>()).add(share);
+            if (participants != null) {
+                ExpenseParticipantDTO participant = new ExpenseParticipantDTO();
+                participant.setId(share.getId());
+                participant.setExpenseId(share.getExpenseId());
+                participant.setParticipantId(share.getParticipantId());
+                participant.setShareAmount(share.getShareAmount());
+                participants.add(participant);
+            }
+        }
+
+        List<ExpenseDTO> dtos = new ArrayList<>(expenses.size());
+        for (Expense expense : expenses) {
+            dtos.add(convertToDTO(expense, sharesByExpense.getOrDefault(expense.getId(), List.of())));
+        }
+        return dtos;
+    }
+
+    private ExpenseDTO convertToDTO(Expense expense, List<ParticipantShare> participants) {
         ExpenseDTO dto = new ExpenseDTO();
         dto.setId(expense.getId());
         dto.setDescription(expense.getDescription());
@@ -249,9 +392,8 @@ public class ExpenseService {
         Map<Long, String> splitDetails = new HashMap<>();
         List<Long> splitWith = new ArrayList<>();
 
-        List<ExpenseParticipant> participants = expenseParticipantRepository.findByExpense(expense);
-        for (ExpenseParticipant participant : participants) {
-            Long participantId = participant.getParticipant().getId();
+        for (ParticipantShare participant : participants) {
+            Long participantId = participant.getParticipantId();
             BigDecimal shareAmount = participant.getShareAmount();
 
             splitDetails.put(participantId, shareAmount.toString());
@@ -274,8 +416,10 @@ public class ExpenseService {
         Expense expense = expenseRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Expense not found"));
 
-        // Delete associated ExpenseParticipant entries
-        expenseParticipantRepository.deleteByExpense(expense);
+        // Delete associated ExpenseParticipant entries and their ledger contribution
+        List<ExpenseParticipant> participants = expenseParticipantRepository.findByExpense(expense);
+        balanceLedgerService.reverseParticipants(participants);
+        expenseParticipantRepository.deleteAllInBatch(participants);
 
         // Delete the expense
         expenseRepository.delete(expense);
@@ -286,76 +430,73 @@ public class ExpenseService {
         Roommate roommate = roommateRepository.findById(roommateId)
                 .orElseThrow(() -> new RuntimeException("Roommate not found"));
 
-        // Find all ExpenseParticipant entries for this roommate
-        List<ExpenseParticipant> participations = expenseParticipantRepository.findByParticipantId(roommateId);
+        // Take the roommate's shares out of the ledger from per-owner totals
+        Long roommateUserId = roommate.getUser() == null ? null : roommate.getUser().getId();
+        List<CounterpartyTotal> totals = expenseParticipantRepository.sumSharesByExpenseOwnerForParticipant(roommateId);
+        balanceLedgerService.reverseParticipantTotals(roommateId, roommateUserId, totals);
 
-        // Delete all ExpenseParticipant entries for this roommate
+        // Delete all ExpenseParticipant entries for this roommate, then the expenses that leaves empty
         expenseParticipantRepository.deleteByParticipantId(roommateId);
+        deleteOrphanedExpenses(totals);
+    }
 
-        // Find all expenses where this roommate was the only participant and delete them
-        for (ExpenseParticipant participation : participations) {
-            Expense expense = participation.getExpense();
-            List<ExpenseParticipant> expenseParticipants = expenseParticipantRepository.findByExpenseId(expense.getId());
-            if (expenseParticipants.isEmpty()) {
-                expenseRepository.delete(expense);
-            }
+    // Deletes the expenses left without participants among those owned by the totals' counterparties
+    int deleteOrphanedExpenses(List<CounterpartyTotal> totals) {
+        if (totals.isEmpty()) {
+            return 0;
         }
+        return expenseRepository.deleteWithoutParticipantsByUserIdIn(
+                totals.stream().map(CounterpartyTotal::getCounterpartyId).toList());
     }
 
+    @Transactional(readOnly = true)
     public Map<Long, BigDecimal> calculateBalances(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        Map<Long, BigDecimal> balances = new HashMap<>();
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
 
-        // Find the user's roommate representations
-        List<Roommate> userRoommates = roommateRepository.findByUser(user);
-        if (userRoommates.isEmpty()) {
+        // The user must have at least one roommate representation
+        if (!roommateRepository.existsByUserId(userId)) {
             throw new RuntimeException("User's roommate representation not found");
         }
 
-        // Get all expenses associated with the user
-        List<Expense> userExpenses = expenseRepository.findByUser(user);
-
-        for (Expense expense : userExpenses) {
-            List<ExpenseParticipant> participants = expenseParticipantRepository.findByExpense(expense);
-
-            for (ExpenseParticipant participant : participants) {
-                Long roommateId = participant.getParticipant().getId();
-                BigDecimal shareAmount = participant.getShareAmount();
+        return readBalances(userId);
+    }
 
-                // Positive shareAmount means roommate is owed money by the user
-                // We add it directly to the balance
-                balances.merge(roommateId, shareAmount, BigDecimal::add);
-            }
+    // Balances without the existence checks, for callers that have already loaded the user and roommates
+    Map<Long, BigDecimal> readBalances(Long userId) {
+        if (balanceLedgerService.servesBalances(userId)) {
+            return balanceLedgerService.getBalances(userId);
+        }
+        if (balanceCheckpointService.isEnabled()) {
+            return balanceCheckpointService.getBalances(userId);
         }
+        return balanceAggregationService.aggregateBalances(userId);
+    }
 
-        // Get expenses where the user is a participant (not the creator)
-        for (Roommate userRoommate : userRoommates) {
-            List<ExpenseParticipant> userParticipations = expenseParticipantRepository.findByParticipant(userRoommate);
+    // Position of the last expense on a page: its date and id, encoded as an opaque token
+    private static class ExpenseCursor {
+        private final LocalDate date;
+        private final Long id;
 
-            for (ExpenseParticipant participation : userParticipations) {
-                Expense expense = participation.getExpense();
-                Long payerId = expense.getUser().getId();
-                BigDecimal shareAmount = participation.getShareAmount();
+        ExpenseCursor(LocalDate date, Long id) {
+            this.date = date;
+            this.id = id;
+        }
 
-                // Negative shareAmount means user owes money to the payer
-                // We negate it because from the user's perspective, it's money owed
-                balances.merge(payerId, shareAmount.negate(), BigDecimal::add);
-            }
+        String encode() {
+            String raw = date + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
         }
 
-        // Adjust balances based on settlements (keeping the original logic)
-        List<Settlement> userSettlements = settlementRepository.findByPayerIdOrReceiverId(userId, userId);
-        for (Settlement settlement : userSettlements) {
-            if (settlement.getPayerId().equals(userId)) {
-                // User paid, so reduce the balance
-                balances.merge(settlement.getReceiverId(), settlement.getAmount().negate(), BigDecimal::add);
-            } else {
-                // User received, so increase the balance
-                balances.merge(settlement.getPayerId(), settlement.getAmount(), BigDecimal::add);
+        static ExpenseCursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = raw.indexOf(':');
+                return new ExpenseCursor(LocalDate.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
             }
         }
-
-        return balances;
     }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.expensesplitter.service;
+
+import com.expensesplitter.dto.ExpenseDTO;
+import com.expensesplitter.entity.Expense;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Turns an incoming expense into the signed share stored for each counterparty, from the logged-in
+ * user's point of view: positive when the user owes that counterparty, negative when they owe the
+ * user. Pure computation over the DTO; amounts are split in cents by {@link SplitCalculator}.
+ */
+@Component
+public class ExpenseShareCalculator {
+    private final SplitCalculator splitCalculator;
+
+    public ExpenseShareCalculator(SplitCalculator splitCalculator) {
+        this.splitCalculator = splitCalculator;
+    }
+
+    // Signed share per counterparty for one expense that passed ExpenseService.validateExpense
+    public Map<Long, BigDecimal> computeShares(ExpenseDTO expenseDTO, Long loggedInUserId, BigDecimal totalAmount,
+                                               Expense.SplitType splitType) {
+        Map<Long, BigDecimal> shares = new LinkedHashMap<>();
+        if (splitType == Expense.SplitType.EQUAL) {
+            handleEqualSplit(expenseDTO, loggedInUserId, shares, totalAmount);
+        } else if (splitType == Expense.SplitType.CUSTOM) {
+            handleCustomSplit(expenseDTO, loggedInUserId, shares, totalAmount);
+        }
+        return shares;
+    }
+
+    private void handleEqualSplit(ExpenseDTO expenseDTO, Long loggedInUserId, Map<Long, BigDecimal> shares, BigDecimal totalAmount) {
+        // Participants in ascending id order, so remainder cents always land on the same people
+        long[] participantIds = sortedParticipantIds(expenseDTO);
+        int count = participantIds.length;
+
+        long[] paid = new long[count];
+        for (int i = 0; i < count; i++) {
+            paid[i] = SplitCalculator.parseCents(expenseDTO.getSplitDetails().get(participantIds[i]));
+        }
+        long[] shouldPay = new long[count];
+        splitCalculator.equal(SplitCalculator.toCents(totalAmount), shouldPay);
+
+        int user = Arrays.binarySearch(participantIds, loggedInUserId);
+        boolean isMultiplePayers = expenseDTO.getPaidBy().size() > 1;
+
+        if (isMultiplePayers) {
+            handleMultiplePayers(participantIds, user, paid, shouldPay, shares);
+        } else {
+            handleSinglePayer(expenseDTO.getPaidBy().get(0), participantIds, user, shouldPay, shares);
+        }
+    }
+
+    private void handleCustomSplit(ExpenseDTO expenseDTO, Long loggedInUserId, Map<Long, BigDecimal> shares, BigDecimal totalAmount) {
+        Long payerId = expenseDTO.getPaidBy().get(0);
+
+        if (payerId.equals(loggedInUserId)) {
+            // User is the payer and is owed every other participant's share
+            long[] participantIds = sortedParticipantIds(expenseDTO);
+            long[] amounts = new long[participantIds.length];
+            for (int i = 0; i < participantIds.length; i++) {
+                amounts[i] = SplitCalculator.parseCents(expenseDTO.getSplitDetails().get(participantIds[i]));
+            }
+            long[] owed = new long[participantIds.length];
+            splitCalculator.custom(SplitCalculator.toCents(totalAmount), amounts, owed);
+
+            for (int i = 0; i < participantIds.length; i++) {
+                if (participantIds[i] != loggedInUserId) {
+                    shares.put(participantIds[i], SplitCalculator.fromCents(-owed[i]));
+                }
+            }
+        } else {
+            // Roommate is the payer; the user owes them their own share
+            long userShare = SplitCalculator.parseCents(expenseDTO.getSplitDetails().get(loggedInUserId));
+            shares.put(payerId, SplitCalculator.fromCents(userShare));
+        }
+    }
+
+    private void handleMultiplePayers(long[] participantIds, int user, long[] paid, long[] shouldPay,
+                                      Map<Long, BigDecimal> shares) {
+        long userPaid = paid[user];
+        long userShouldPay = shouldPay[user];
+
+        for (int i = 0; i < participantIds.length; i++) {
+            if (i == user) {
+                continue;
+            }
+
+            long userOwesParticipant = 0;
+            if (userPaid < userShouldPay) {
+                // User underpaid, might owe the participant
+                userOwesParticipant = Math.min(paid[i] - shouldPay[i], userShouldPay - userPaid);
+            } else if (paid[i] < shouldPay[i]) {
+                // Participant underpaid, user might be owed
+                userOwesParticipant = Math.max(-(shouldPay[i] - paid[i]), -(userPaid - userShouldPay));
+            }
+
+            if (userOwesParticipant != 0) {
+                shares.put(participantIds[i], SplitCalculator.fromCents(userOwesParticipant));
+            }
+        }
+    }
+
+    private void handleSinglePayer(Long payerId, long[] participantIds, int user, long[] shouldPay,
+                                   Map<Long, BigDecimal> shares) {
+        if (participantIds[user] == payerId) {
+            // User is the payer
+            for (int i = 0; i < participantIds.length; i++) {
+                if (i != user) {
+                    shares.put(participantIds[i], SplitCalculator.fromCents(-shouldPay[i])); // User is owed this amount
+                }
+            }
+        } else {
+            // Roommate is the payer; the user owes them their share
+            shares.put(payerId, SplitCalculator.fromCents(shouldPay[user]));
+        }
+    }
+
+    private static long[] sortedParticipantIds(ExpenseDTO expenseDTO) {
+        long[] participantIds = new long[expenseDTO.getSplitDetails().size()];
+        int i = 0;
+        for (Long participantId : expenseDTO.getSplitDetails().keySet()) {
+            participantIds[i++] = participantId;
+        }
+        Arrays.sort(participantIds);
+        return participantIds;
+    }
+}
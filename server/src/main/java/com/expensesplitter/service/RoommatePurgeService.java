@@ -0,0 +1,138 @@
+package com.expensesplitter.service;
+
+import com.expensesplitter.dto.RoommateDeletionDTO;
+import com.expensesplitter.entity.Roommate;
+import com.expensesplitter.exception.ResourceNotFoundException;
+import com.expensesplitter.repository.CounterpartyTotal;
+import com.expensesplitter.repository.ExpenseParticipantRepository;
+import com.expensesplitter.repository.RoommateRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Background half of the asynchronous roommate delete. The roommate is soft-deleted straight away
+ * (left out of roommate lookups through its deleted_at column); this job then removes its shares,
+ * ledger contribution and orphaned expenses in small transactions, and finally the roommate row.
+ * Pending work is read from the database, so a restart simply picks it up again.
+ */
+@Service
+public class RoommatePurgeService {
+    private static final Logger log = LoggerFactory.getLogger(RoommatePurgeService.class);
+
+    private final RoommateRepository roommateRepository;
+    private final ExpenseParticipantRepository expenseParticipantRepository;
+    private final ExpenseService expenseService;
+    private final BalanceLedgerService balanceLedgerService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Progress of recent purges; finished entries linger for a while so clients can see completion
+    private final Cache<Long, RoommateDeletionDTO> progress = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofHours(1))
+            .maximumSize(10_000)
+            .build();
+
+    @Value("${roommates.purge.batch-size:1000}")
+    private int batchSize;
+
+    public RoommatePurgeService(RoommateRepository roommateRepository,
+                                ExpenseParticipantRepository expenseParticipantRepository,
+                                ExpenseService expenseService,
+                                BalanceLedgerService balanceLedgerService,
+                                PlatformTransactionManager transactionManager) {
+        this.roommateRepository = roommateRepository;
+        this.expenseParticipantRepository = expenseParticipantRepository;
+        this.expenseService = expenseService;
+        this.balanceLedgerService = balanceLedgerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional
+    public RoommateDeletionDTO markDeleted(Roommate roommate) {
+        roommate.setDeletedAt(LocalDateTime.now());
+        roommateRepository.save(roommate);
+
+        RoommateDeletionDTO status = new RoommateDeletionDTO(roommate.getId(), RoommateDeletionDTO.PENDING,
+                expenseParticipantRepository.countByParticipantId(roommate.getId()), 0, 0);
+        progress.put(roommate.getId(), status);
+        return status;
+    }
+
+    public RoommateDeletionDTO getStatus(Long roommateId) {
+        RoommateDeletionDTO status = progress.getIfPresent(roommateId);
+        if (status != null) {
+            return status;
+        }
+        // Known to the database but not to this instance, e.g. after a restart
+        if (roommateRepository.countSoftDeletedById(roommateId) > 0) {
+            return new RoommateDeletionDTO(roommateId, RoommateDeletionDTO.PENDING,
+                    expenseParticipantRepository.countByParticipantId(roommateId), 0, 0);
+        }
+        throw new ResourceNotFoundException("No deletion in progress for roommate " + roommateId);
+    }
+
+    @Scheduled(fixedDelayString = "${roommates.purge.interval-ms:10000}")
+    public void purgePending() {
+        for (Long roommateId : roommateRepository.findSoftDeletedIds()) {
+            try {
+                purge(roommateId);
+            } catch (RuntimeException e) {
+                // Left soft-deleted; the next run retries from where this one stopped
+                log.error("Purging roommate {} failed", roommateId, e);
+            }
+        }
+    }
+
+    void purge(Long roommateId) {
+        RoommateDeletionDTO started = progress.getIfPresent(roommateId);
+        long total = started != null ? started.getParticipationsTotal() : expenseParticipantRepository.countByParticipantId(roommateId);
+        long deleted = started != null ? started.getParticipationsDeleted() : 0;
+        long expensesDeleted = started != null ? started.getExpensesDeleted() : 0;
+        Long roommateUserId = roommateRepository.findUserIdIncludingDeleted(roommateId);
+
+        while (true) {
+            progress.put(roommateId, new RoommateDeletionDTO(roommateId, RoommateDeletionDTO.RUNNING,
+                    total, deleted, expensesDeleted));
+
+            long[] batch = transactionTemplate.execute(tx -> purgeBatch(roommateId, roommateUserId));
+            if (batch[0] == 0) {
+                break;
+            }
+            deleted += batch[0];
+            expensesDeleted += batch[1];
+        }
+
+        transactionTemplate.executeWithoutResult(tx -> roommateRepository.deleteSoftDeletedById(roommateId));
+        progress.put(roommateId, new RoommateDeletionDTO(roommateId, RoommateDeletionDTO.COMPLETED,
+                total, deleted, expensesDeleted));
+        log.info("Purged roommate {}: {} shares, {} expenses", roommateId, deleted, expensesDeleted);
+    }
+
+    // Returns {participations deleted, expenses deleted}
+    private long[] purgeBatch(Long roommateId, Long roommateUserId) {
+        List<Long> ids = expenseParticipantRepository.findIdsByParticipantId(roommateId, Limit.of(batchSize));
+        if (ids.isEmpty()) {
+            return new long[]{0, 0};
+        }
+
+        List<CounterpartyTotal> totals = expenseParticipantRepository.sumSharesByExpenseOwnerForIds(ids);
+        balanceLedgerService.reverseParticipantTotals(roommateId, roommateUserId, totals);
+
+        // Shares first, then whatever expenses of the same owners that leaves empty, in this transaction
+        expenseParticipantRepository.deleteAllByIdInBatch(ids);
+        int expensesDeleted = expenseService.deleteOrphanedExpenses(totals);
+        return new long[]{ids.size(), expensesDeleted};
+    }
+}
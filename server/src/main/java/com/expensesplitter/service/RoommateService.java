@@ -1,10 +1,12 @@
 package com.expensesplitter.service;
 
 import com.expensesplitter.dto.RoommateDTO;
+import com.expensesplitter.dto.RoommateDeletionDTO;
 import com.expensesplitter.entity.Roommate;
 import com.expensesplitter.entity.User;
 import com.expensesplitter.repository.RoommateRepository;
 import com.expensesplitter.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,11 +20,18 @@ public class RoommateService {
     private final RoommateRepository roommateRepository;
     private final UserRepository userRepository;
     private final ExpenseService expenseService;
+    private final RoommatePurgeService roommatePurgeService;
 
-    public RoommateService(RoommateRepository roommateRepository, UserRepository userRepository, ExpenseService expenseService) {
+    // Soft-delete and purge in the background instead of deleting the whole history in the request
+    @Value("${roommates.delete.async:false}")
+    private boolean asyncDelete;
+
+    public RoommateService(RoommateRepository roommateRepository, UserRepository userRepository, ExpenseService expenseService,
+                           RoommatePurgeService roommatePurgeService) {
         this.roommateRepository = roommateRepository;
         this.userRepository = userRepository;
         this.expenseService = expenseService;
+        this.roommatePurgeService = roommatePurgeService;
     }
 
     @Transactional
@@ -43,16 +52,27 @@ public class RoommateService {
     }
 
     @Transactional
-    public void deleteRoommate(Long roommateId) {
+    public RoommateDeletionDTO deleteRoommate(Long roommateId) {
         Roommate roommate = roommateRepository.findById(roommateId)
                 .orElseThrow(() -> new RuntimeException("Roommate not found"));
 
+        if (asyncDelete) {
+            return roommatePurgeService.markDeleted(roommate);
+        }
+
         // Delete all expenses related to this roommate
         expenseService.deleteExpensesForRoommate(roommateId);
 
         roommateRepository.delete(roommate);
+        return new RoommateDeletionDTO(roommateId, RoommateDeletionDTO.COMPLETED, 0, 0, 0);
+    }
+
+    @Transactional(readOnly = true)
+    public RoommateDeletionDTO getDeletionStatus(Long roommateId) {
+        return roommatePurgeService.getStatus(roommateId);
     }
 
+    @Transactional(readOnly = true)
     public List<RoommateDTO> getRoommates(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -63,6 +83,7 @@ public class RoommateService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public RoommateDTO getRoommate(Long roommateId, Long userId) {
         Roommate roommate = roommateRepository.findById(roommateId)
                 .orElseThrow(() -> new RuntimeException("Roommate not found"));
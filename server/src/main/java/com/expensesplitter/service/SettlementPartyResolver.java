@@ -0,0 +1,94 @@
+package com.expensesplitter.service;
+
+import com.expensesplitter.exception.ResourceNotFoundException;
+import com.expensesplitter.repository.PartyKind;
+import com.expensesplitter.repository.UserRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Works out whether settlement parties are users or roommates. Both parties are looked up with a
+ * single UNION query, and the answers are kept for the rest of the current transaction so a
+ * request that touches the same parties again does not go back to the database.
+ */
+@Component
+public class SettlementPartyResolver {
+    private final UserRepository userRepository;
+
+    public SettlementPartyResolver(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public Parties resolve(Long payerId, Long receiverId) {
+        Map<Long, Boolean> known = transactionCache();
+        List<Long> missing = new ArrayList<>(2);
+        if (!known.containsKey(payerId)) {
+            missing.add(payerId);
+        }
+        if (!known.containsKey(receiverId)) {
+            missing.add(receiverId);
+        }
+
+        if (!missing.isEmpty()) {
+            for (PartyKind row : userRepository.findPartyKinds(missing)) {
+                // Users win if an id exists in both tables, as they did with the old existsById check
+                known.merge(row.getId(), "USER".equals(row.getKind()), Boolean::logicalOr);
+            }
+        }
+
+        Boolean payerIsUser = known.get(payerId);
+        if (payerIsUser == null) {
+            throw new ResourceNotFoundException("Payer not found");
+        }
+        Boolean receiverIsUser = known.get(receiverId);
+        if (receiverIsUser == null) {
+            throw new ResourceNotFoundException("Receiver not found");
+        }
+        return new Parties(payerIsUser, receiverIsUser);
+    }
+
+    // Outside a transaction nothing is shared between calls
+    @SuppressWarnings("unchecked")
+    private Map<Long, Boolean> transactionCache() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new HashMap<>();
+        }
+        Map<Long, Boolean> cache = (Map<Long, Boolean>) TransactionSynchronizationManager.getResource(this);
+        if (cache == null) {
+            Map<Long, Boolean> created = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SettlementPartyResolver.this);
+                }
+            });
+            cache = created;
+        }
+        return cache;
+    }
+
+    public static class Parties {
+        private final boolean payerUser;
+        private final boolean receiverUser;
+
+        public Parties(boolean payerUser, boolean receiverUser) {
+            this.payerUser = payerUser;
+            this.receiverUser = receiverUser;
+        }
+
+        public boolean isPayerUser() {
+            return payerUser;
+        }
+
+        public boolean isReceiverUser() {
+            return receiverUser;
+        }
+    }
+}
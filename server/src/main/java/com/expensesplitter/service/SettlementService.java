@@ -1,31 +1,45 @@
 package com.expensesplitter.service;
 
+import com.expensesplitter.dto.SettlementDTO;
+import com.expensesplitter.dto.SettlementPlanDTO;
+import com.expensesplitter.dto.SettlementPeriodTotalDTO;
 import com.expensesplitter.entity.Settlement;
-import com.expensesplitter.repository.RoommateRepository;
+import com.expensesplitter.repository.SettlementPeriodTotal;
 import com.expensesplitter.repository.SettlementRepository;
-import com.expensesplitter.repository.UserRepository;
 import com.expensesplitter.exception.ResourceNotFoundException;
 import com.expensesplitter.exception.UnauthorizedException;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 @Service
+@Timed(value = "settlement.service", description = "SettlementService calls", histogram = true)
 public class SettlementService {
     private final SettlementRepository settlementRepository;
-    private final UserRepository userRepository;
-
-    private final RoommateRepository roommateRepository;
-
-    public SettlementService(SettlementRepository settlementRepository, UserRepository userRepository, RoommateRepository roommateRepository) {
+    private final SettlementPartyResolver settlementPartyResolver;
+    private final BalanceLedgerService balanceLedgerService;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final ExpenseService expenseService;
+    private final DebtSimplifier debtSimplifier;
+
+    public SettlementService(SettlementRepository settlementRepository, SettlementPartyResolver settlementPartyResolver,
+                             BalanceLedgerService balanceLedgerService, BalanceCheckpointService balanceCheckpointService,
+                             ExpenseService expenseService, DebtSimplifier debtSimplifier) {
         this.settlementRepository = settlementRepository;
-        this.userRepository = userRepository;
-        this.roommateRepository = roommateRepository;
+        this.settlementPartyResolver = settlementPartyResolver;
+        this.balanceLedgerService = balanceLedgerService;
+        this.balanceCheckpointService = balanceCheckpointService;
+        this.expenseService = expenseService;
+        this.debtSimplifier = debtSimplifier;
     }
 
     @Transactional
@@ -40,31 +54,7 @@ public class SettlementService {
             throw new UnauthorizedException("You must be either the payer or the receiver in the settlement");
         }
 
-        // Determine if payer and receiver are users or roommates
-        boolean isPayerUser = userRepository.existsById(payerId);
-        boolean isReceiverUser = userRepository.existsById(receiverId);
-
-        // Verify that both payer and receiver exist
-        if (isPayerUser) {
-            userRepository.findById(payerId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Payer user not found"));
-        } else {
-            roommateRepository.findById(payerId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Payer roommate not found"));
-        }
-
-        if (isReceiverUser) {
-            userRepository.findById(receiverId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Receiver user not found"));
-        } else {
-            roommateRepository.findById(receiverId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Receiver roommate not found"));
-        }
-
-        // Prevent settlements between two roommates
-        if (!isPayerUser && !isReceiverUser) {
-            throw new IllegalArgumentException("Settlements between two roommates are not allowed");
-        }
+        checkParties(payerId, receiverId);
 
         // Create and save the settlement
         Settlement settlement = new Settlement();
@@ -72,9 +62,20 @@ public class SettlementService {
         settlement.setReceiverId(receiverId);
         settlement.setAmount(amount);
         settlement.setDate(date);
-        return settlementRepository.save(settlement);
+        Settlement savedSettlement = settlementRepository.save(settlement);
+        balanceLedgerService.recordSettlement(savedSettlement);
+        return savedSettlement;
+    }
+
+    // Both parties must exist, and at least one of them must be a user rather than a roommate
+    private void checkParties(Long payerId, Long receiverId) {
+        SettlementPartyResolver.Parties parties = settlementPartyResolver.resolve(payerId, receiverId);
+        if (!parties.isPayerUser() && !parties.isReceiverUser()) {
+            throw new IllegalArgumentException("Settlements between two roommates are not allowed");
+        }
     }
 
+    @Transactional(readOnly = true)
     public Settlement getSettlement(Long id, Long loggedInUserId) {
         Settlement settlement = settlementRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Settlement not found"));
@@ -86,12 +87,48 @@ public class SettlementService {
         return settlement;
     }
 
-    public List<Settlement> getSettlementsByUser(Long userId) {
-        return settlementRepository.findByPayerIdOrReceiverId(userId, userId);
+    @Transactional(readOnly = true)
+    public List<SettlementDTO> getSettlementsByUser(Long userId) {
+        return settlementRepository.findDTOsByUser(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SettlementDTO> getSettlementsByUserAndDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
+        return settlementRepository.findDTOsByUserAndDateBetween(userId, startDate, endDate);
+    }
+
+    public SettlementDTO convertToDTO(Settlement settlement) {
+        return new SettlementDTO(settlement.getId(), settlement.getPayerId(), settlement.getReceiverId(),
+                settlement.getAmount(), settlement.getDate());
     }
 
-    public List<Settlement> getSettlementsByUserAndDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
-        return settlementRepository.findByPayerIdOrReceiverIdAndDateBetween(userId, userId, startDate, endDate);
+    /**
+     * Paid and received totals per counterparty for each day or month in the range. The database
+     * groups by bucket and counterparty, so both directions between the user and a counterparty
+     * arrive as one row, ordered by period then counterparty.
+     */
+    @Transactional(readOnly = true)
+    public List<SettlementPeriodTotalDTO> getSettlementTotalsByPeriod(Long userId, LocalDate startDate, LocalDate endDate,
+                                                                      String bucket) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+
+        List<SettlementPeriodTotal> rows;
+        if ("day".equalsIgnoreCase(bucket)) {
+            rows = settlementRepository.sumByDayAndCounterparty(userId, startDate, endDate);
+        } else if ("month".equalsIgnoreCase(bucket)) {
+            rows = settlementRepository.sumByMonthAndCounterparty(userId, startDate, endDate);
+        } else {
+            throw new IllegalArgumentException("Invalid bucket: " + bucket + " (expected day or month)");
+        }
+
+        List<SettlementPeriodTotalDTO> totals = new ArrayList<>(rows.size());
+        for (SettlementPeriodTotal row : rows) {
+            totals.add(new SettlementPeriodTotalDTO(LocalDate.of(row.getYear(), row.getMonth(), row.getDay()),
+                    row.getCounterpartyId(), row.getPaid(), row.getReceived()));
+        }
+        return totals;
     }
 
     @Transactional
@@ -114,33 +151,14 @@ public class SettlementService {
             throw new UnauthorizedException("You must be either the payer or the receiver in the settlement");
         }
 
-        // Determine if payer and receiver are users or roommates
-        boolean isPayerUser = userRepository.existsById(payerId);
-        boolean isReceiverUser = userRepository.existsById(receiverId);
+        checkParties(payerId, receiverId);
 
-        // Verify that both payer and receiver exist
-        if (isPayerUser) {
-            userRepository.findById(payerId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Payer user not found"));
-        } else {
-            roommateRepository.findById(payerId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Payer roommate not found"));
-        }
+        // Update the settlement, moving its ledger contribution from the old parties to the new ones
+        BalanceLedgerService.Changes changes = balanceLedgerService.changes()
+                .removeSettlement(settlement.getPayerId(), settlement.getReceiverId(), settlement.getAmount(), settlement.getDate())
+                .addSettlement(payerId, receiverId, amount, date);
+        balanceLedgerService.apply(changes);
 
-        if (isReceiverUser) {
-            userRepository.findById(receiverId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Receiver user not found"));
-        } else {
-            roommateRepository.findById(receiverId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Receiver roommate not found"));
-        }
-
-        // Prevent settlements between two roommates
-        if (!isPayerUser && !isReceiverUser) {
-            throw new IllegalArgumentException("Settlements between two roommates are not allowed");
-        }
-
-        // Update the settlement
         settlement.setPayerId(payerId);
         settlement.setReceiverId(receiverId);
         settlement.setAmount(amount);
@@ -158,10 +176,21 @@ public class SettlementService {
             throw new UnauthorizedException("You are not authorized to delete this settlement");
         }
 
+        balanceLedgerService.reverseSettlement(settlement);
         settlementRepository.delete(settlement);
     }
 
+    @Transactional(readOnly = true)
     public BigDecimal calculateTotalSettledAmount(Long userId) {
+        if (balanceLedgerService.servesBalances(userId)) {
+            BigDecimal[] totals = balanceLedgerService.getSettlementTotals(userId);
+            return totals[1].subtract(totals[0]);
+        }
+        if (balanceCheckpointService.isEnabled()) {
+            BigDecimal[] totals = balanceCheckpointService.getSettlementTotals(userId);
+            return totals[1].subtract(totals[0]);
+        }
+
         List<Settlement> payerSettlements = settlementRepository.findByPayerId(userId);
         List<Settlement> receiverSettlements = settlementRepository.findByReceiverId(userId);
 
@@ -176,17 +205,26 @@ public class SettlementService {
         return totalReceived.subtract(totalPaid);
     }
 
+    @Transactional(readOnly = true)
     public Map<String, BigDecimal> getUserBalanceSummary(Long userId) {
-        List<Settlement> userSettlements = settlementRepository.findByPayerIdOrReceiverId(userId, userId);
-
         BigDecimal totalOwed = BigDecimal.ZERO;
         BigDecimal totalOwes = BigDecimal.ZERO;
 
-        for (Settlement settlement : userSettlements) {
-            if (settlement.getPayerId().equals(userId)) {
-                totalOwes = totalOwes.add(settlement.getAmount());
-            } else {
-                totalOwed = totalOwed.add(settlement.getAmount());
+        boolean fromLedger = balanceLedgerService.servesBalances(userId);
+        if (fromLedger || balanceCheckpointService.isEnabled()) {
+            BigDecimal[] totals = fromLedger
+                    ? balanceLedgerService.getSettlementTotals(userId)
+                    : balanceCheckpointService.getSettlementTotals(userId);
+            totalOwes = totals[0];
+            totalOwed = totals[1];
+        } else {
+            List<Settlement> userSettlements = settlementRepository.findByPayerIdOrReceiverId(userId, userId);
+            for (Settlement settlement : userSettlements) {
+                if (settlement.getPayerId().equals(userId)) {
+                    totalOwes = totalOwes.add(settlement.getAmount());
+                } else {
+                    totalOwed = totalOwed.add(settlement.getAmount());
+                }
             }
         }
 
@@ -200,7 +238,15 @@ public class SettlementService {
         return summary;
     }
 
+    @Transactional(readOnly = true)
     public Map<Long, BigDecimal> getUserBalancesWithRoommates(Long userId) {
+        if (balanceLedgerService.servesBalances(userId)) {
+            return balanceLedgerService.getSettlementBalances(userId);
+        }
+        if (balanceCheckpointService.isEnabled()) {
+            return balanceCheckpointService.getSettlementBalances(userId);
+        }
+
         List<Settlement> userSettlements = settlementRepository.findByPayerIdOrReceiverId(userId, userId);
         Map<Long, BigDecimal> balances = new HashMap<>();
 
@@ -217,4 +263,47 @@ public class SettlementService {
 
         return balances;
     }
+
+    /**
+     * Suggests the transfers that clear the user's current balances. Settlements must involve the user,
+     * so the plan settles each counterparty with the user directly; it is optimal when roommates
+     * paying each other could not have done it in fewer transfers, which is checked exactly for up to
+     * settlement-plan.exact-max-members members.
+     */
+    @Transactional(readOnly = true)
+    public SettlementPlanDTO getSettlementPlan(Long userId) {
+        Map<Long, BigDecimal> balances = expenseService.calculateBalances(userId);
+        LocalDate today = LocalDate.now();
+
+        // Member 0 is the user; a positive balance means the user owes that counterparty
+        List<Long> memberIds = new ArrayList<>();
+        memberIds.add(userId);
+        List<Long> nets = new ArrayList<>();
+        nets.add(0L);
+        for (Map.Entry<Long, BigDecimal> entry : new TreeMap<>(balances).entrySet()) {
+            long cents = entry.getValue().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            // The user's entry for their own id nets their roommates' shares and cannot be settled
+            if (entry.getKey().equals(userId) || cents == 0) {
+                continue;
+            }
+            memberIds.add(entry.getKey());
+            nets.add(cents);
+            nets.set(0, nets.get(0) - cents);
+        }
+
+        long[] positions = nets.stream().mapToLong(Long::longValue).toArray();
+        DebtSimplifier.Plan plan = debtSimplifier.simplifyThrough(positions, 0);
+
+        List<SettlementDTO> transfers = new ArrayList<>();
+        for (DebtSimplifier.Transfer transfer : plan.getTransfers()) {
+            SettlementDTO dto = new SettlementDTO();
+            dto.setPayerId(memberIds.get(transfer.getFrom()));
+            dto.setReceiverId(memberIds.get(transfer.getTo()));
+            dto.setAmount(BigDecimal.valueOf(transfer.getAmount(), 2));
+            dto.setDate(today);
+            transfers.add(dto);
+        }
+
+        return new SettlementPlanDTO(transfers, plan.isOptimal());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+package com.expensesplitter.service;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Splits an amount between participants in integer minor units (cents). Every method writes one
+ * share per participant into a caller-supplied array, so the hot path allocates nothing per
+ * participant. Shares always add up to the total exactly: cents that do not divide evenly go one
+ * each to the participants in array order, so callers that order participants by id get the same
+ * split every time.
+ */
+@Component
+public class SplitCalculator {
+    public static final int PERCENT_BASIS_POINTS = 10_000;
+
+    public static long toCents(BigDecimal amount) {
+        try {
+            return amount.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amounts can have at most two decimal places: " + amount);
+        }
+    }
+
+    // Plain decimal strings like "12", "-3.5" or "0.07" are parsed directly; anything else via BigDecimal
+    public static long parseCents(String amount) {
+        int length = amount.length();
+        int start = length > 0 && (amount.charAt(0) == '-' || amount.charAt(0) == '+') ? 1 : 0;
+        int point = amount.indexOf('.');
+        int wholeEnd = point < 0 ? length : point;
+        int decimals = point < 0 ? 0 : length - point - 1;
+        if (wholeEnd == start || wholeEnd - start > 15 || decimals > 2) {
+            return toCents(new BigDecimal(amount));
+        }
+
+        long cents = 0;
+        for (int i = start; i < length; i++) {
+            if (i == point) {
+                continue;
+            }
+            char c = amount.charAt(i);
+            if (c < '0' || c > '9') {
+                return toCents(new BigDecimal(amount));
+            }
+            cents = cents * 10 + (c - '0');
+        }
+        for (int i = decimals; i < 2; i++) {
+            cents *= 10;
+        }
+        return amount.charAt(0) == '-' ? -cents : cents;
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public void equal(long totalCents, long[] shares) {
+        int count = checkParticipants(shares);
+        long base = Math.floorDiv(totalCents, count);
+        long remainder = Math.floorMod(totalCents, count);
+        for (int i = 0; i < count; i++) {
+            shares[i] = i < remainder ? base + 1 : base;
+        }
+    }
+
+    public void custom(long totalCents, long[] amounts, long[] shares) {
+        checkParticipants(shares);
+        checkSameLength(amounts, shares);
+        long sum = 0;
+        for (int i = 0; i < amounts.length; i++) {
+            sum = Math.addExact(sum, amounts[i]);
+            shares[i] = amounts[i];
+        }
+        if (sum != totalCents) {
+            throw new IllegalArgumentException("Custom shares add up to " + fromCents(sum)
+                    + " instead of " + fromCents(totalCents));
+        }
+    }
+
+    // Percentages in basis points (1% = 100) that must add up to 100%
+    public void percentage(long totalCents, long[] basisPoints, long[] shares) {
+        checkSameLength(basisPoints, shares);
+        if (sum(basisPoints) != PERCENT_BASIS_POINTS) {
+            throw new IllegalArgumentException("Percentages must add up to 100");
+        }
+        weighted(totalCents, basisPoints, PERCENT_BASIS_POINTS, shares);
+    }
+
+    // Relative weights, e.g. 2:1:1 for someone who had two nights out of four
+    public void shares(long totalCents, long[] weights, long[] shares) {
+        checkSameLength(weights, shares);
+        long totalWeight = sum(weights);
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("At least one participant needs a positive share");
+        }
+        weighted(totalCents, weights, totalWeight, shares);
+    }
+
+    /*
+     * Largest remainder method: everyone gets the floor of their exact share, then the leftover
+     * cents go to the largest fractional parts, ties to the earlier participant. The leftover is
+     * fewer cents than participants, and each pass picks the next (fraction, -index) below the
+     * previous pick, so no scratch storage is needed.
+     */
+    private static void weighted(long totalCents, long[] weights, long totalWeight, long[] shares) {
+        checkParticipants(shares);
+        boolean negative = totalCents < 0;
+        long total = Math.abs(totalCents);
+
+        long allocated = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("Shares cannot be negative");
+            }
+            shares[i] = Math.multiplyExact(total, weights[i]) / totalWeight;
+            allocated += shares[i];
+        }
+
+        long lastFraction = Long.MAX_VALUE;
+        int lastIndex = -1;
+        for (long left = total - allocated; left > 0; left--) {
+            int pick = -1;
+            long pickFraction = -1;
+            for (int i = 0; i < weights.length; i++) {
+                long fraction = (total * weights[i]) % totalWeight;
+                boolean belowLast = fraction < lastFraction || (fraction == lastFraction && i > lastIndex);
+                if (belowLast && fraction > pickFraction) {
+                    pick = i;
+                    pickFraction = fraction;
+                }
+            }
+            shares[pick]++;
+            lastFraction = pickFraction;
+            lastIndex = pick;
+        }
+
+        if (negative) {
+            for (int i = 0; i < shares.length; i++) {
+                shares[i] = -shares[i];
+            }
+        }
+    }
+
+    private static int checkParticipants(long[] shares) {
+        if (shares.length == 0) {
+            throw new IllegalArgumentException("At least one participant is required");
+        }
+        return shares.length;
+    }
+
+    private static void checkSameLength(long[] values, long[] shares) {
+        if (values.length != shares.length) {
+            throw new IllegalArgumentException("Expected " + shares.length + " values but got " + values.length);
+        }
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum = Math.addExact(sum, value);
+        }
+        return sum;
+    }
+}
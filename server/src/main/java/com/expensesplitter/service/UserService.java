@@ -3,6 +3,7 @@ package com.expensesplitter.service;
 import com.expensesplitter.dto.UserDTO;
 import com.expensesplitter.entity.User;
 import com.expensesplitter.repository.UserRepository;
+import com.expensesplitter.security.AuthenticatedUserCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -12,18 +13,22 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final AuthenticatedUserCache authenticatedUserCache;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, AuthenticatedUserCache authenticatedUserCache) {
         this.userRepository = userRepository;
+        this.authenticatedUserCache = authenticatedUserCache;
     }
 
+    @Transactional(readOnly = true)
     public UserDTO getCurrentUser(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
         return convertToDTO(user);
     }
 
+    @Transactional(readOnly = true)
     public UserDTO getUserById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
@@ -35,6 +40,7 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
 
+        authenticatedUserCache.evict(user.getId(), user.getUsername());
         user.setUsername(userDTO.getUsername());
         // Note: We're not updating the password here. Password updates should be handled separately with proper encryption.
 
@@ -44,10 +50,10 @@ public class UserService {
 
     @Transactional
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new UsernameNotFoundException("User not found with id: " + id);
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
+        authenticatedUserCache.evict(user.getId(), user.getUsername());
+        userRepository.delete(user);
     }
 
     private UserDTO convertToDTO(User user) {
@@ -59,6 +65,7 @@ public class UserService {
 
     // You might want to add more methods based on your application's needs, such as:
 
+    @Transactional(readOnly = true)
     public boolean usernameExists(String username) {
         return userRepository.existsByUsername(username);
     }
@@ -0,0 +1,44 @@
+-- Schema as it was generated by hibernate.ddl-auto before migrations were introduced.
+-- Existing databases are baselined at this version, so this script only runs on empty ones.
+
+CREATE TABLE users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    password VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE roommates (
+    id     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name   VARCHAR(255) NOT NULL,
+    userid BIGINT,
+    CONSTRAINT fk_roommates_user FOREIGN KEY (userid) REFERENCES users (id)
+);
+
+CREATE TABLE expenses (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    amount      NUMERIC(38, 2) NOT NULL,
+    date        DATE NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    is_payer    BOOLEAN NOT NULL,
+    split_type  VARCHAR(255) NOT NULL CHECK (split_type IN ('EQUAL', 'CUSTOM')),
+    user_id     BIGINT NOT NULL,
+    CONSTRAINT fk_expenses_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE expense_participants (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    share_amount   NUMERIC(38, 2),
+    expense_id     BIGINT NOT NULL,
+    participant_id BIGINT NOT NULL,
+    CONSTRAINT fk_expense_participants_expense FOREIGN KEY (expense_id) REFERENCES expenses (id),
+    CONSTRAINT fk_expense_participants_roommate FOREIGN KEY (participant_id) REFERENCES roommates (id)
+);
+
+CREATE TABLE settlements (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    amount      NUMERIC(38, 2),
+    date        DATE,
+    payer_id    BIGINT,
+    receiver_id BIGINT
+);
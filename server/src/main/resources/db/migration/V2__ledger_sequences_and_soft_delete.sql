@@ -0,0 +1,20 @@
+-- Schema added while ddl-auto=update was still in charge, so some databases already have it.
+
+-- Running per-pair balances maintained by BalanceLedgerService
+CREATE TABLE IF NOT EXISTS pair_balances (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id          BIGINT NOT NULL,
+    counterparty_id  BIGINT NOT NULL,
+    net_amount       NUMERIC(38, 2) NOT NULL,
+    settled_paid     NUMERIC(38, 2) NOT NULL,
+    settled_received NUMERIC(38, 2) NOT NULL,
+    version          BIGINT,
+    CONSTRAINT uk_pair_balances_user_counterparty UNIQUE (user_id, counterparty_id)
+);
+
+-- Pooled id sequences for batched expense inserts (allocationSize = 50)
+CREATE SEQUENCE IF NOT EXISTS expenses_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS expense_participants_seq START WITH 1 INCREMENT BY 50;
+
+-- Roommates waiting for RoommatePurgeService
+ALTER TABLE roommates ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP(6);
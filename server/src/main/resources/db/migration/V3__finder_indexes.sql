@@ -0,0 +1,32 @@
+-- One index per repository access path. Column order follows the equality predicate first,
+-- then the range or sort column.
+
+-- ExpenseParticipantRepository: findByExpense(Id), findSharesByExpenseIds, deleteByExpense,
+-- and the "no other participant" NOT EXISTS probes
+CREATE INDEX IF NOT EXISTS idx_expense_participants_expense_participant
+    ON expense_participants (expense_id, participant_id);
+
+-- ExpenseParticipantRepository: findByParticipant(Id), deleteByParticipantId, countByParticipantId,
+-- findIdsByParticipantId, the per-roommate share totals and the participant-user balance join
+CREATE INDEX IF NOT EXISTS idx_expense_participants_participant_expense
+    ON expense_participants (participant_id, expense_id);
+
+-- ExpenseRepository: findByUser(Id), keyset pages ordered by (date, id), owner balance join
+CREATE INDEX IF NOT EXISTS idx_expenses_user_date_id
+    ON expenses (user_id, date, id);
+
+-- SettlementRepository: findByPayerId(AndDateBetween), the payer half of the OR finders
+CREATE INDEX IF NOT EXISTS idx_settlements_payer_date
+    ON settlements (payer_id, date);
+
+-- SettlementRepository: findByReceiverId(AndDateBetween), the receiver half of the OR finders
+CREATE INDEX IF NOT EXISTS idx_settlements_receiver_date
+    ON settlements (receiver_id, date);
+
+-- SettlementRepository: findByDateBetween
+CREATE INDEX IF NOT EXISTS idx_settlements_date
+    ON settlements (date);
+
+-- RoommateRepository: findByUser(Id), existsByUserId, participant-user balance join
+CREATE INDEX IF NOT EXISTS idx_roommates_userid
+    ON roommates (userid);
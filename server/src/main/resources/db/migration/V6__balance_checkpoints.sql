@@ -0,0 +1,13 @@
+-- Month-end balance snapshots per (user, counterparty) maintained by BalanceCheckpointService
+CREATE SEQUENCE IF NOT EXISTS balance_checkpoints_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS balance_checkpoints (
+    id               BIGINT PRIMARY KEY,
+    user_id          BIGINT NOT NULL,
+    counterparty_id  BIGINT NOT NULL,
+    as_of            DATE NOT NULL,
+    net_amount       NUMERIC(38, 2) NOT NULL,
+    settled_paid     NUMERIC(38, 2) NOT NULL,
+    settled_received NUMERIC(38, 2) NOT NULL,
+    CONSTRAINT uk_balance_checkpoints_user_as_of_counterparty UNIQUE (user_id, as_of, counterparty_id)
+);
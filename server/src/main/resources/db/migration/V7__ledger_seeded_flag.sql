@@ -0,0 +1,5 @@
+-- Whether a user's pair_balances rows are complete. Users that existed before this migration start
+-- unseeded and read balances by replaying history until BalanceLedgerVerificationJob rebuilds them;
+-- users created afterwards have every write in the ledger from the start.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS ledger_seeded BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE users ALTER COLUMN ledger_seeded SET DEFAULT TRUE;
@@ -0,0 +1,36 @@
+package com.expensesplitter;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cleanup for tests that are not transactional and so commit what they seed. Settlements, ledger
+ * rows and checkpoints store bare party ids, and roommate ids share a key space with user ids, so a
+ * household left behind shows up in the balances of whichever later user gets one of its ids.
+ */
+public final class CommittedHouseholds {
+
+    private CommittedHouseholds() {
+    }
+
+    // Deletes the user, its roommates and everything recorded against any of their ids
+    public static void delete(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory, Long userId) {
+        List<Long> ids = new ArrayList<>(jdbcTemplate.queryForList("SELECT id FROM roommates WHERE userid = ?", Long.class, userId));
+        ids.add(userId);
+        String in = String.join(",", ids.stream().map(String::valueOf).toList());
+
+        jdbcTemplate.update("DELETE FROM settlements WHERE payer_id IN (" + in + ") OR receiver_id IN (" + in + ")");
+        jdbcTemplate.update("DELETE FROM pair_balances WHERE user_id IN (" + in + ") OR counterparty_id IN (" + in + ")");
+        jdbcTemplate.update("DELETE FROM balance_checkpoints WHERE user_id IN (" + in + ") OR counterparty_id IN (" + in + ")");
+        jdbcTemplate.update("DELETE FROM expense_participants WHERE expense_id IN (SELECT id FROM expenses WHERE user_id = ?)", userId);
+        jdbcTemplate.update("DELETE FROM expenses WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM roommates WHERE userid = ?", userId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+
+        // The rows went behind Hibernate's back
+        entityManagerFactory.getCache().evictAll();
+    }
+}
@@ -0,0 +1,192 @@
+package com.expensesplitter.controller;
+
+import com.expensesplitter.entity.Roommate;
+import com.expensesplitter.entity.User;
+import com.expensesplitter.repository.RoommateRepository;
+import com.expensesplitter.repository.UserRepository;
+import com.expensesplitter.security.JwtUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import jakarta.persistence.Entity;
+import org.hibernate.proxy.HibernateProxy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// JPA entities must never be read from or written to a request: responses are DTOs or projections
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class EntityResponseContractTest {
+
+    @TestConfiguration
+    static class RejectEntitySerialization {
+        // Fails any response that still manages to serialize an entity, e.g. through ResponseEntity<?>
+        @Bean
+        Module rejectEntitiesModule() {
+            return new SimpleModule().setSerializerModifier(new BeanSerializerModifier() {
+                @Override
+                public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription description,
+                                                          JsonSerializer<?> serializer) {
+                    Class<?> type = description.getBeanClass();
+                    if (!isEntity(type) && !HibernateProxy.class.isAssignableFrom(type)) {
+                        return serializer;
+                    }
+                    return new JsonSerializer<Object>() {
+                        @Override
+                        public void serialize(Object value, JsonGenerator generator, SerializerProvider provider)
+                                throws JsonMappingException {
+                            throw JsonMappingException.from(generator, "Entity reached the HTTP layer: " + type.getName());
+                        }
+                    };
+                }
+            });
+        }
+    }
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoommateRepository roommateRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private Long userId;
+    private Long roommateId;
+    private String token;
+
+    @BeforeEach
+    void seed() {
+        User user = new User();
+        user.setUsername("contract-" + System.nanoTime());
+        user.setPassword("x");
+        user = userRepository.save(user);
+        userId = user.getId();
+        token = "Bearer " + jwtUtil.generateToken(user.getUsername(), userId);
+
+        Roommate self = new Roommate();
+        self.setName("me");
+        self.setUser(user);
+        roommateRepository.save(self);
+        Roommate roommate = new Roommate();
+        roommate.setName("flatmate");
+        roommate.setUser(user);
+        roommateId = roommateRepository.save(roommate).getId();
+    }
+
+    @Test
+    void noHandlerDeclaresAnEntity() {
+        List<String> offenders = new ArrayList<>();
+        for (HandlerMethod handler : handlerMapping.getHandlerMethods().values()) {
+            if (!handler.getBeanType().getPackageName().startsWith("com.expensesplitter")) {
+                continue;
+            }
+            String name = handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+            findEntities(ResolvableType.forMethodReturnType(handler.getMethod()), new HashSet<>(), name + " returns", offenders);
+            for (MethodParameter parameter : handler.getMethodParameters()) {
+                findEntities(ResolvableType.forMethodParameter(parameter), new HashSet<>(), name + " accepts", offenders);
+            }
+        }
+        assertEquals(List.of(), offenders);
+    }
+
+    @Test
+    void writeEndpointsRespondWithDTOs() throws Exception {
+        String expense = "{\"description\":\"rent\",\"amount\":\"10.00\",\"date\":\"2024-03-01\",\"splitType\":\"custom\","
+                + "\"paidBy\":[" + userId + "],\"splitDetails\":{\"" + userId + "\":\"4.00\",\"" + roommateId + "\":\"6.00\"}}";
+        String created = mockMvc.perform(post("/api/expenses").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON).content(expense))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").isNumber())
+                .andExpect(jsonPath("$.user").doesNotExist())
+                .andExpect(jsonPath("$.splitDetails['" + roommateId + "']").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String expenseId = created.replaceAll(".*\"id\":(\\d+).*", "$1");
+
+        mockMvc.perform(put("/api/expenses/" + expenseId).header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON).content(expense.replace("rent", "rent (March)")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("rent (March)"));
+
+        String settlement = "{\"payerId\":" + roommateId + ",\"receiverId\":" + userId
+                + ",\"amount\":6.00,\"date\":\"2024-03-02\"}";
+        mockMvc.perform(post("/api/settlements").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON).content(settlement))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").isNumber())
+                .andExpect(jsonPath("$.payerId").value(roommateId));
+
+        mockMvc.perform(get("/api/settlements").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].receiverId").value(userId));
+    }
+
+    // Walks type arguments and the fields of application types, e.g. a DTO holding a list of entities
+    private static void findEntities(ResolvableType type, Set<Class<?>> seen, String where, List<String> offenders) {
+        Class<?> raw = type.resolve();
+        if (raw == null || !seen.add(raw)) {
+            return;
+        }
+        if (isEntity(raw)) {
+            offenders.add(where + " " + raw.getSimpleName());
+            return;
+        }
+        for (ResolvableType generic : type.getGenerics()) {
+            findEntities(generic, seen, where, offenders);
+        }
+        if (raw.isArray()) {
+            findEntities(type.getComponentType(), seen, where, offenders);
+        }
+        if (raw.getPackageName().startsWith("com.expensesplitter")) {
+            ReflectionUtils.doWithFields(raw, field -> findEntities(ResolvableType.forField(field, type), seen, where, offenders),
+                    field -> !Modifier.isStatic(field.getModifiers()));
+        }
+    }
+
+    private static boolean isEntity(Class<?> type) {
+        return type.isAnnotationPresent(Entity.class);
+    }
+}
@@ -0,0 +1,146 @@
+package com.expensesplitter.controller;
+
+import com.expensesplitter.dto.ExpenseDTO;
+import com.expensesplitter.entity.Roommate;
+import com.expensesplitter.entity.User;
+import com.expensesplitter.repository.RoommateRepository;
+import com.expensesplitter.repository.UserRepository;
+import com.expensesplitter.security.JwtUtil;
+import com.expensesplitter.service.ExpenseService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A small default page so that paging shows up with a handful of rows
+@SpringBootTest(properties = "expenses.page.default-size=2")
+@AutoConfigureMockMvc
+@Transactional
+class ExpenseListingTest {
+
+    private static final int EXPENSES = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoommateRepository roommateRepository;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String token;
+
+    @BeforeEach
+    void seed() {
+        User user = new User();
+        user.setUsername("listing-" + System.nanoTime());
+        user.setPassword("x");
+        user = userRepository.save(user);
+        Long userId = user.getId();
+        token = "Bearer " + jwtUtil.generateToken(user.getUsername(), userId);
+
+        Roommate self = new Roommate();
+        self.setName("me");
+        self.setUser(user);
+        roommateRepository.save(self);
+        Roommate roommate = new Roommate();
+        roommate.setName("flatmate");
+        roommate.setUser(user);
+        Long roommateId = roommateRepository.save(roommate).getId();
+
+        // Two expenses share a date, so the cursor has to break the tie on id
+        for (int i = 0; i < EXPENSES; i++) {
+            ExpenseDTO dto = new ExpenseDTO();
+            dto.setDescription("expense " + i);
+            dto.setAmount("10.00");
+            dto.setDate("2024-05-0" + Math.min(i + 1, 4));
+            dto.setSplitType("custom");
+            dto.setPaidBy(List.of(userId));
+            dto.setSplitDetails(Map.of(userId, "4.00", roommateId, "6.00"));
+            expenseService.createExpense(dto, userId);
+        }
+    }
+
+    @Test
+    void withoutCursorOrLimitTheDefaultPageIsReturned() throws Exception {
+        MockHttpServletResponse response = list(get("/api/expenses"));
+
+        assertNotNull(response.getHeader(ExpenseController.NEXT_CURSOR_HEADER));
+        assertEquals(List.of("expense 4", "expense 3"), descriptions(response));
+    }
+
+    @Test
+    void followingTheCursorWalksEveryExpenseOnce() throws Exception {
+        List<String> walked = new ArrayList<>();
+        MockHttpServletResponse page = list(get("/api/expenses").param("limit", "2"));
+        walked.addAll(descriptions(page));
+        assertEquals(2, walked.size());
+
+        // A cursor without a limit falls back to the default page size
+        String cursor;
+        while ((cursor = page.getHeader(ExpenseController.NEXT_CURSOR_HEADER)) != null) {
+            page = list(get("/api/expenses").param("cursor", cursor));
+            assertTrue(descriptions(page).size() <= 2);
+            walked.addAll(descriptions(page));
+        }
+
+        assertEquals(List.of("expense 4", "expense 3", "expense 2", "expense 1", "expense 0"), walked);
+    }
+
+    @Test
+    void anExplicitLimitOverridesTheDefaultPageSize() throws Exception {
+        MockHttpServletResponse response = list(get("/api/expenses").param("limit", "10"));
+
+        assertNull(response.getHeader(ExpenseController.NEXT_CURSOR_HEADER));
+        assertEquals(EXPENSES, descriptions(response).size());
+    }
+
+    @Test
+    void filtersApplyToEveryPage() throws Exception {
+        MockHttpServletResponse response = list(get("/api/expenses").param("from", "2024-05-03").param("limit", "10"));
+
+        assertEquals(List.of("expense 4", "expense 3", "expense 2"), descriptions(response));
+    }
+
+    @Test
+    void malformedCursorIsRejected() throws Exception {
+        mockMvc.perform(get("/api/expenses").param("cursor", "not-a-cursor").header("Authorization", token))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MockHttpServletResponse list(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request.header("Authorization", token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+    }
+
+    private List<String> descriptions(MockHttpServletResponse response) throws Exception {
+        List<ExpenseDTO> expenses = objectMapper.readValue(response.getContentAsString(), new TypeReference<>() {});
+        return expenses.stream().map(ExpenseDTO::getDescription).toList();
+    }
+}
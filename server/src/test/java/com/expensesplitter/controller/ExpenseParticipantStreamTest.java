@@ -0,0 +1,68 @@
+package com.expensesplitter.controller;
+
+import com.expensesplitter.dto.ExpenseParticipantDTO;
+import com.expensesplitter.security.AuthenticatedUser;
+import com.expensesplitter.service.ExpenseParticipantService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpenseParticipantStreamTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(new AuthenticatedUser(1L, "streamer"), null, List.of()));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void completeStreamIsAClosedArray() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller(false).streamUserExpenseParticipants(null, response);
+
+        JsonNode rows = objectMapper.readTree(response.getContentAsString());
+        assertEquals(2, rows.size());
+    }
+
+    @Test
+    void failureMidStreamLeavesTheArrayOpen() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThrows(IllegalStateException.class, () -> controller(true).streamUserExpenseParticipants(null, response));
+
+        assertFalse(response.getContentAsString().endsWith("]"), "a truncated stream must not look complete");
+    }
+
+    // A controller whose participant rows come from a stub that can fail after the first row
+    private ExpenseController controller(boolean failAfterFirstRow) {
+        ExpenseParticipantService participants = new ExpenseParticipantService(null) {
+            @Override
+            public void streamUserExpenseParticipants(Long userId, LocalDate since, Consumer<ExpenseParticipantDTO> consumer) {
+                consumer.accept(new ExpenseParticipantDTO(1L, 10L, 2L, new BigDecimal("-6.00")));
+                if (failAfterFirstRow) {
+                    throw new IllegalStateException("connection lost");
+                }
+                consumer.accept(new ExpenseParticipantDTO(2L, 11L, 2L, new BigDecimal("-3.00")));
+            }
+        };
+        return new ExpenseController(null, null, participants, null, objectMapper);
+    }
+}
@@ -0,0 +1,157 @@
+package com.expensesplitter.controller;
+
+import com.expensesplitter.CommittedHouseholds;
+import com.expensesplitter.dto.ExpenseDTO;
+import com.expensesplitter.entity.Roommate;
+import com.expensesplitter.entity.User;
+import com.expensesplitter.repository.RoommateRepository;
+import com.expensesplitter.repository.UserRepository;
+import com.expensesplitter.security.JwtUtil;
+import com.expensesplitter.service.ExpenseService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Not transactional: each request commits on its own, as it would from the client
+@SpringBootTest
+@AutoConfigureMockMvc
+class SettlementPlanTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoommateRepository roommateRepository;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long userId;
+    private Long aliceId;
+    private Long bobId;
+    private String token;
+
+    @BeforeEach
+    void seed() {
+        User user = new User();
+        user.setUsername("plan-" + System.nanoTime());
+        user.setPassword("x");
+        user = userRepository.save(user);
+        userId = user.getId();
+        token = "Bearer " + jwtUtil.generateToken(user.getUsername(), userId);
+
+        roommate(user, "me");
+        aliceId = roommate(user, "alice");
+        bobId = roommate(user, "bob");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        CommittedHouseholds.delete(jdbcTemplate, entityManagerFactory, userId);
+    }
+
+    @Test
+    void postingEveryPlannedTransferClearsTheBalances() throws Exception {
+        // Alice and Bob owe the user, the user owes Alice for something she paid
+        expense(List.of(userId), Map.of(userId, "4.00", aliceId, "6.00"), "10.00");
+        expense(List.of(userId), Map.of(userId, "5.00", bobId, "7.50"), "12.50");
+        expense(List.of(aliceId), Map.of(userId, "3.25", aliceId, "4.75"), "8.00");
+
+        JsonNode plan = objectMapper.readTree(mockMvc.perform(get("/api/settlements/plan").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertTrue(plan.get("optimal").asBoolean());
+        assertEquals(2, plan.get("transfers").size());
+
+        for (JsonNode transfer : plan.get("transfers")) {
+            assertTrue(transfer.get("payerId").asLong() == userId || transfer.get("receiverId").asLong() == userId,
+                    "transfer must involve the user: " + transfer);
+            assertFalse(transfer.get("date").isNull(), "transfer must be dated: " + transfer);
+
+            mockMvc.perform(post("/api/settlements").header("Authorization", token)
+                            .contentType(MediaType.APPLICATION_JSON).content(transfer.toString()))
+                    .andExpect(status().isCreated());
+        }
+
+        Map<Long, BigDecimal> balances = objectMapper.readValue(
+                mockMvc.perform(get("/api/expenses/balances").header("Authorization", token))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString(),
+                new TypeReference<>() {});
+        balances.forEach((counterpartyId, balance) -> {
+            if (!counterpartyId.equals(userId)) {
+                assertEquals(0, balance.signum(), "counterparty " + counterpartyId + " in " + balances);
+            }
+        });
+
+        JsonNode settled = objectMapper.readTree(mockMvc.perform(get("/api/settlements/plan").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(0, settled.get("transfers").size());
+    }
+
+    @Test
+    void passingMoneyOnThroughTheUserIsNotOptimal() throws Exception {
+        // Alice owes the user what the user owes Bob; Alice paying Bob would take one transfer, not two
+        expense(List.of(userId), Map.of(userId, "5.00", aliceId, "5.00"), "10.00");
+        expense(List.of(bobId), Map.of(userId, "5.00", bobId, "5.00"), "10.00");
+
+        JsonNode plan = objectMapper.readTree(mockMvc.perform(get("/api/settlements/plan").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertFalse(plan.get("optimal").asBoolean());
+        assertEquals(2, plan.get("transfers").size());
+    }
+
+    private void expense(List<Long> paidBy, Map<Long, String> splitDetails, String amount) {
+        ExpenseDTO dto = new ExpenseDTO();
+        dto.setDescription("groceries");
+        dto.setAmount(amount);
+        dto.setDate("2024-06-01");
+        dto.setSplitType("custom");
+        dto.setPaidBy(paidBy);
+        dto.setSplitDetails(splitDetails);
+        expenseService.createExpense(dto, userId);
+    }
+
+    private Long roommate(User user, String name) {
+        Roommate roommate = new Roommate();
+        roommate.setName(name);
+        roommate.setUser(user);
+        return roommateRepository.save(roommate).getId();
+    }
+}
@@ -0,0 +1,53 @@
+package com.expensesplitter.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SampledLoggerFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+
+    @Test
+    void letsOneInEverySampleRateStatementsThrough() {
+        SampledLoggerFilter filter = filter(10);
+        Logger sql = context.getLogger("org.hibernate.SQL");
+
+        int accepted = 0;
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.ACCEPT, filter.decide(null, sql, Level.DEBUG, null, null, null));
+            if (filter.decide(null, sql, Level.DEBUG, "select 1", null, null) == FilterReply.ACCEPT) {
+                accepted++;
+            }
+        }
+        assertEquals(10, accepted);
+    }
+
+    @Test
+    void leavesOtherLoggersAndLevelsAlone() {
+        SampledLoggerFilter filter = filter(1);
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, context.getLogger("org.hibernate.orm"), Level.DEBUG, "x", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, context.getLogger("org.hibernate.SQL"), Level.WARN, "x", null, null));
+    }
+
+    @Test
+    void zeroSampleRateTurnsSamplingOff() {
+        SampledLoggerFilter filter = filter(0);
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, context.getLogger("org.hibernate.SQL"), Level.DEBUG, "x", null, null));
+    }
+
+    private SampledLoggerFilter filter(int sampleRate) {
+        SampledLoggerFilter filter = new SampledLoggerFilter();
+        filter.setContext(context);
+        filter.setLoggerName("org.hibernate.SQL");
+        filter.setSampleRate(sampleRate);
+        filter.start();
+        return filter;
+    }
+}
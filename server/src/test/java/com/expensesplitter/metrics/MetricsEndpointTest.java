@@ -0,0 +1,73 @@
+package com.expensesplitter.metrics;
+
+import com.expensesplitter.entity.User;
+import com.expensesplitter.repository.UserRepository;
+import com.expensesplitter.security.JwtUtil;
+import com.expensesplitter.service.SettlementService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@Transactional
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void prometheusEndpointPublishesRequestServicePoolAndQueryMetrics() throws Exception {
+        settlementService.getSettlementsByUser(-1L);
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"nobody-" + System.nanoTime() + "\",\"password\":\"x\"}"))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", token()))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_count{")))
+                .andExpect(content().string(containsString("http_server_requests_queries_count{")))
+                .andExpect(content().string(containsString("uri=\"/api/auth/login\"")))
+                .andExpect(content().string(containsString("settlement_service_seconds_count{")))
+                .andExpect(content().string(containsString("method=\"getSettlementsByUser\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")));
+    }
+
+    @Test
+    void prometheusEndpointRequiresAuthentication() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    private String token() {
+        User user = new User();
+        user.setUsername("metrics-" + System.nanoTime());
+        user.setPassword("x");
+        user = userRepository.save(user);
+        return "Bearer " + jwtUtil.generateToken(user.getUsername(), user.getId());
+    }
+}
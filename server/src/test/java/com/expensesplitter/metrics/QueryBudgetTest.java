@@ -0,0 +1,199 @@
+package com.expensesplitter.metrics;
+
+import com.expensesplitter.CommittedHouseholds;
+import com.expensesplitter.controller.ExpenseController;
+import com.expensesplitter.dto.ExpenseDTO;
+import com.expensesplitter.entity.Roommate;
+import com.expensesplitter.entity.User;
+import com.expensesplitter.repository.RoommateRepository;
+import com.expensesplitter.repository.UserRepository;
+import com.expensesplitter.security.JwtUtil;
+import com.expensesplitter.service.ExpenseService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.expensesplitter.metrics.QueryCountAssertions.assertMaxQueries;
+import static com.expensesplitter.metrics.QueryCountAssertions.maxQueries;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Query counts must not grow with the number of expenses; a repository call in a loop fails here.
+// Not transactional: the seed commits and every request opens its own session, as behind the
+// real endpoint, so a lazy load per row is counted rather than served from the test's session.
+@SpringBootTest
+@AutoConfigureMockMvc
+class QueryBudgetTest {
+
+    private static final int EXPENSES = 500;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoommateRepository roommateRepository;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long userId;
+    private Long roommateId;
+    private String token;
+
+    @BeforeEach
+    void seed() {
+        User user = new User();
+        user.setUsername("budget-" + System.nanoTime());
+        user.setPassword("x");
+        user = userRepository.save(user);
+        userId = user.getId();
+        token = "Bearer " + jwtUtil.generateToken(user.getUsername(), userId);
+
+        Roommate self = new Roommate();
+        self.setName("me");
+        self.setUser(user);
+        roommateRepository.save(self);
+        Roommate roommate = new Roommate();
+        roommate.setName("flatmate");
+        roommate.setUser(user);
+        roommateId = roommateRepository.save(roommate).getId();
+
+        List<ExpenseDTO> expenses = new ArrayList<>();
+        for (int i = 0; i < EXPENSES; i++) {
+            ExpenseDTO dto = new ExpenseDTO();
+            dto.setDescription("expense " + i);
+            dto.setAmount("10.00");
+            dto.setDate("2024-01-" + String.format("%02d", 1 + i % 28));
+            dto.setSplitType("custom");
+            dto.setPaidBy(List.of(userId));
+            dto.setSplitDetails(Map.of(userId, "4.00", roommateId, "6.00"));
+            expenses.add(dto);
+        }
+        expenseService.createExpenses(expenses, userId);
+
+        // Nothing the seed loaded may answer a query the request under test should run
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        CommittedHouseholds.delete(jdbcTemplate, entityManagerFactory, userId);
+    }
+
+    @Test
+    void listingExpenses() throws Exception {
+        mockMvc.perform(get("/api/expenses").param("limit", String.valueOf(EXPENSES)).header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(maxQueries(5));
+    }
+
+    @Test
+    void listingParticipants() throws Exception {
+        mockMvc.perform(get("/api/expenses/participants").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(EXPENSES))
+                .andExpect(maxQueries(5));
+    }
+
+    @Test
+    void pagingParticipants() throws Exception {
+        String cursor = mockMvc.perform(get("/api/expenses/participants").param("limit", "200")
+                        .header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(200))
+                .andExpect(maxQueries(5))
+                .andReturn().getResponse().getHeader(ExpenseController.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/api/expenses/participants").param("limit", "400").param("cursor", cursor)
+                        .header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(EXPENSES - 200))
+                .andExpect(header().doesNotExist(ExpenseController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void balances() throws Exception {
+        mockMvc.perform(get("/api/expenses/balances").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(maxQueries(5));
+    }
+
+    @Test
+    void dashboard() throws Exception {
+        mockMvc.perform(get("/api/dashboard").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.id").value(userId))
+                .andExpect(jsonPath("$.roommates.length()").value(2))
+                .andExpect(jsonPath("$.expenses.length()").value(100))
+                .andExpect(jsonPath("$.participants.length()").value(100))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andExpect(jsonPath("$.balances['" + roommateId + "']").value(-3000.0))
+                // user, roommates, expense page, its shares, whether the ledger is seeded for the user (asked
+                // once per user), and the ledger for balances and for settlement totals
+                .andExpect(maxQueries(7));
+    }
+
+    @Test
+    void deletingAnExpense() throws Exception {
+        Long expenseId = expenseService.getUserExpenses(userId, null, 1, null, null, null, null)
+                .getExpenses().get(0).getId();
+        mockMvc.perform(delete("/api/expenses/" + expenseId).header("Authorization", token))
+                .andExpect(status().isNoContent())
+                // the principal (its cache is cold for a new user), the expense and its shares, the lock on
+                // the touched users, one in-place ledger UPDATE per touched pair rather than a read and a
+                // batched write, and the two deletes
+                .andExpect(maxQueries(8));
+    }
+
+    @Test
+    void deletingRoommateWithHistory() throws Exception {
+        mockMvc.perform(delete("/api/roommates/" + roommateId).header("Authorization", token))
+                .andExpect(status().isNoContent())
+                .andExpect(maxQueries(12));
+    }
+
+    @Test
+    void creatingABatchOfExpenses() {
+        List<ExpenseDTO> batch = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ExpenseDTO dto = new ExpenseDTO();
+            dto.setDescription("batch " + i);
+            dto.setAmount("3.00");
+            dto.setDate("2024-02-01");
+            dto.setSplitType("custom");
+            dto.setPaidBy(List.of(userId));
+            dto.setSplitDetails(Map.of(userId, "1.00", roommateId, "2.00"));
+            batch.add(dto);
+        }
+        assertEquals(50, assertMaxQueries(queryCounter, 12, () -> expenseService.createExpenses(batch, userId)).size());
+    }
+}
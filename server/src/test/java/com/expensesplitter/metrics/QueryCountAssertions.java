@@ -0,0 +1,43 @@
+package com.expensesplitter.metrics;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Query budgets for tests, e.g. "listing 500 expenses takes at most 3 statements". Counts come
+ * from the same QueryCounter that feeds the http.server.requests.queries metric.
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    // Statements the action ran on the current thread
+    public static int countQueries(QueryCounter queryCounter, Runnable action) {
+        int before = queryCounter.get();
+        action.run();
+        return queryCounter.get() - before;
+    }
+
+    public static <T> T assertMaxQueries(QueryCounter queryCounter, int maxQueries, Supplier<T> action) {
+        int before = queryCounter.get();
+        T result = action.get();
+        int queries = queryCounter.get() - before;
+        assertTrue(queries <= maxQueries, "Expected at most " + maxQueries + " SQL statements but " + queries + " ran");
+        return result;
+    }
+
+    // MockMvc matcher for the whole request, as counted by RequestQueryMetricsFilter
+    public static ResultMatcher maxQueries(int maxQueries) {
+        return result -> {
+            Integer queries = (Integer) result.getRequest().getAttribute(RequestQueryMetricsFilter.QUERY_COUNT_ATTRIBUTE);
+            assertNotNull(queries, "Request did not pass through RequestQueryMetricsFilter");
+            assertTrue(queries <= maxQueries, result.getRequest().getMethod() + " " + result.getRequest().getRequestURI()
+                    + ": expected at most " + maxQueries + " SQL statements but " + queries + " ran");
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package com.expensesplitter.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EXPLAIN for the SQL behind each repository finder against the migrated schema and checks
+ * that the planner answers it from an index rather than a table scan. H2 backs every foreign key
+ * with an index of its own and may pick that one where it covers the same leading column, so those
+ * are accepted alongside the V3__finder_indexes.sql index; PostgreSQL has only the latter.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryIndexUsageTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // ANALYZE commits, so the rows are seeded once and removed explicitly afterwards
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (id, username, password) VALUES (9001, 'explain', 'x'), (9002, 'other', 'x')");
+        for (long id = 9001; id <= 9020; id++) {
+            jdbcTemplate.update("INSERT INTO roommates (id, name, userid) VALUES (?, ?, ?)", id, "r" + id, id % 2 == 0 ? 9002 : 9001);
+        }
+        for (long id = 9001; id <= 9400; id++) {
+            jdbcTemplate.update("INSERT INTO expenses (id, description, amount, date, user_id, is_payer, split_type) " +
+                    "VALUES (?, 'e', 10.00, DATE '2024-01-01' + CAST(? AS INT), ?, TRUE, 'EQUAL')", id, id % 365, id % 2 == 0 ? 9002 : 9001);
+            jdbcTemplate.update("INSERT INTO expense_participants (id, expense_id, participant_id, share_amount) VALUES (?, ?, ?, 5.00)",
+                    id, id, 9001 + id % 20);
+            jdbcTemplate.update("INSERT INTO settlements (id, payer_id, receiver_id, amount, date) " +
+                    "VALUES (?, ?, ?, 1.00, DATE '2024-01-01' + CAST(? AS INT))", id, 9001 + id % 20, 9001 + (id + 1) % 20, id % 365);
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM settlements WHERE id BETWEEN 9001 AND 9400");
+        jdbcTemplate.update("DELETE FROM expense_participants WHERE id BETWEEN 9001 AND 9400");
+        jdbcTemplate.update("DELETE FROM expenses WHERE id BETWEEN 9001 AND 9400");
+        jdbcTemplate.update("DELETE FROM roommates WHERE id BETWEEN 9001 AND 9020");
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (9001, 9002)");
+    }
+
+    static Stream<Arguments> finders() {
+        return Stream.of(
+                Arguments.of("ExpenseParticipantRepository.findByExpenseId",
+                        "SELECT * FROM expense_participants WHERE expense_id = 9001",
+                        "idx_expense_participants_expense_participant|fk_expense_participants_expense_index"),
+                Arguments.of("ExpenseParticipantRepository.findSharesByExpenseIds",
+                        "SELECT expense_id, participant_id, share_amount FROM expense_participants WHERE expense_id IN (9001, 9002, 9003) ORDER BY id",
+                        "idx_expense_participants_expense_participant|fk_expense_participants_expense_index"),
+                Arguments.of("ExpenseRepository.deleteWithoutParticipantsByUserIdIn (NOT EXISTS probe)",
+                        "SELECT 1 FROM expense_participants WHERE expense_id = 9001",
+                        "idx_expense_participants_expense_participant|fk_expense_participants_expense_index"),
+                Arguments.of("ExpenseParticipantRepository.findByParticipantId",
+                        "SELECT * FROM expense_participants WHERE participant_id = 9002",
+                        "idx_expense_participants_participant_expense|fk_expense_participants_roommate_index"),
+                Arguments.of("ExpenseParticipantRepository.countByParticipantId",
+                        "SELECT COUNT(*) FROM expense_participants WHERE participant_id = 9002",
+                        "idx_expense_participants_participant_expense|fk_expense_participants_roommate_index"),
+                Arguments.of("ExpenseParticipantRepository.sumSharesByExpenseOwnerForParticipant",
+                        "SELECT e.user_id, SUM(ep.share_amount) FROM expense_participants ep " +
+                                "JOIN expenses e ON e.id = ep.expense_id WHERE ep.participant_id = 9002 GROUP BY e.user_id",
+                        "idx_expense_participants_participant_expense|fk_expense_participants_roommate_index"),
+                Arguments.of("ExpenseRepository.findByUserId",
+                        "SELECT * FROM expenses WHERE user_id = 9001",
+                        "idx_expenses_user_date_id|fk_expenses_user_index"),
+                Arguments.of("ExpenseRepository keyset page",
+                        "SELECT * FROM expenses WHERE user_id = 9001 AND (date < DATE '2024-06-01' " +
+                                "OR (date = DATE '2024-06-01' AND id < 9200)) ORDER BY date DESC, id DESC LIMIT 101",
+                        "idx_expenses_user_date_id|fk_expenses_user_index"),
+                Arguments.of("SettlementRepository.findByPayerId",
+                        "SELECT * FROM settlements WHERE payer_id = 9001",
+                        "idx_settlements_payer_date"),
+                Arguments.of("SettlementRepository.findByPayerIdAndDateBetween",
+                        "SELECT * FROM settlements WHERE payer_id = 9001 AND date BETWEEN DATE '2024-02-01' AND DATE '2024-03-01'",
+                        "idx_settlements_payer_date"),
+                Arguments.of("SettlementRepository.findByReceiverId",
+                        "SELECT * FROM settlements WHERE receiver_id = 9001",
+                        "idx_settlements_receiver_date"),
+                Arguments.of("SettlementRepository.findByReceiverIdAndDateBetween",
+                        "SELECT * FROM settlements WHERE receiver_id = 9001 AND date BETWEEN DATE '2024-02-01' AND DATE '2024-03-01'",
+                        "idx_settlements_receiver_date"),
+                Arguments.of("SettlementRepository.findByDateBetween",
+                        "SELECT * FROM settlements WHERE date BETWEEN DATE '2024-02-01' AND DATE '2024-02-03'",
+                        "idx_settlements_date"),
+                Arguments.of("RoommateRepository.findByUserId",
+                        "SELECT * FROM roommates WHERE userid = 9001",
+                        "idx_roommates_userid|fk_roommates_user_index")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("finders")
+    void finderUsesIndex(String finder, String sql, String indexes) {
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class)).toLowerCase();
+
+        assertFalse(plan.contains("tablescan"), finder + " scans a table:\n" + plan);
+        assertTrue(Arrays.stream(indexes.split("\\|")).anyMatch(plan::contains),
+                finder + " does not use " + indexes + ":\n" + plan);
+    }
+}
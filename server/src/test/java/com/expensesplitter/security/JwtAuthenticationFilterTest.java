@@ -0,0 +1,118 @@
+package com.expensesplitter.security;
+
+import com.expensesplitter.entity.User;
+import com.expensesplitter.repository.UserRepository;
+import com.expensesplitter.service.UserService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class JwtAuthenticationFilterTest {
+
+    @Autowired
+    private JwtAuthenticationFilter filter;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    private User user;
+
+    @BeforeEach
+    void seed() {
+        user = new User();
+        user.setUsername("jwt-" + System.nanoTime());
+        user.setPassword("x");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void tokenWithUserIdAuthenticates() throws Exception {
+        AuthenticatedUser principal = authenticate(jwtUtil.generateToken(user.getUsername(), user.getId()));
+
+        assertNotNull(principal);
+        assertEquals(user.getId(), principal.getId());
+        assertEquals(user.getUsername(), principal.getUsername());
+    }
+
+    @Test
+    void legacyTokenWithoutUserIdIsResolvedByUsername() throws Exception {
+        String legacy = Jwts.builder()
+                .subject(user.getUsername())
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        AuthenticatedUser principal = authenticate(legacy);
+
+        assertNotNull(principal);
+        assertEquals(user.getId(), principal.getId());
+    }
+
+    @Test
+    void deletedUsersTokensStopAuthenticating() throws Exception {
+        String token = jwtUtil.generateToken(user.getUsername(), user.getId());
+        assertNotNull(authenticate(token));
+        SecurityContextHolder.clearContext();
+
+        // The first request cached the principal; deleting the user must evict it
+        userService.deleteUser(user.getId());
+
+        assertNull(authenticate(token));
+    }
+
+    @Test
+    void tokenForAnUnknownUserIdIsRejected() throws Exception {
+        assertNull(authenticate(jwtUtil.generateToken(user.getUsername(), -1L)));
+    }
+
+    @Test
+    void tamperedTokenIsRejected() throws Exception {
+        String token = jwtUtil.generateToken(user.getUsername(), user.getId());
+        assertNull(authenticate(token.substring(0, token.length() - 2) + "xx"));
+    }
+
+    // Runs the filter on a request carrying the token and returns the principal it authenticated, if any
+    private AuthenticatedUser authenticate(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest(), "the filter must always continue the chain");
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : (AuthenticatedUser) authentication.getPrincipal();
+    }
+}
@@ -0,0 +1,210 @@
+package com.expensesplitter.service;
+
+import com.expensesplitter.CommittedHouseholds;
+import com.expensesplitter.dto.ExpenseDTO;
+import com.expensesplitter.entity.Expense;
+import com.expensesplitter.entity.Roommate;
+import com.expensesplitter.entity.User;
+import com.expensesplitter.repository.BalanceCheckpointRepository;
+import com.expensesplitter.repository.RoommateRepository;
+import com.expensesplitter.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Checkpoints are only built and invalidated when balance reads do not come from the ledger
+@SpringBootTest(properties = "balance-ledger.enabled=false")
+@Transactional
+class BalanceCheckpointServiceTest {
+
+    private static final LocalDate JANUARY_END = LocalDate.of(2024, 1, 31);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoommateRepository roommateRepository;
+
+    @Autowired
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+
+    @Autowired
+    private BalanceCheckpointService balanceCheckpointService;
+
+    @Autowired
+    private BalanceCheckpointJob balanceCheckpointJob;
+
+    @Autowired
+    private BalanceAggregationService balanceAggregationService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long userId;
+    private Long roommateId;
+
+    @BeforeEach
+    void seed() {
+        User user = new User();
+        user.setUsername("checkpoint-" + System.nanoTime());
+        user.setPassword("x");
+        userId = userRepository.save(user).getId();
+
+        Roommate self = new Roommate();
+        self.setName("me");
+        self.setUser(user);
+        roommateRepository.save(self);
+        Roommate roommate = new Roommate();
+        roommate.setName("flatmate");
+        roommate.setUser(user);
+        roommateId = roommateRepository.save(roommate).getId();
+    }
+
+    @Test
+    void balancesFromCheckpointMatchFullReplay() {
+        expense("10.00", "4.00", "6.00", "2024-01-10");
+        settlementService.createSettlement(roommateId, userId, new BigDecimal("3.00"), LocalDate.of(2024, 1, 20), userId);
+        assertTrue(balanceCheckpointService.checkpoint(userId, JANUARY_END));
+
+        expense("8.00", "2.00", "6.00", "2024-02-05");
+        settlementService.createSettlement(userId, roommateId, new BigDecimal("1.50"), LocalDate.of(2024, 2, 6), userId);
+
+        assertEquals(JANUARY_END, balanceCheckpointRepository.findLatestAsOf(userId));
+        assertSameBalances(balanceAggregationService.aggregateBalances(userId), balanceCheckpointService.getBalances(userId));
+        BigDecimal[] totals = balanceCheckpointService.getSettlementTotals(userId);
+        assertEquals(0, new BigDecimal("4.50").compareTo(totals[0].add(totals[1])));
+    }
+
+    @Test
+    void backDatedWritesInvalidateCheckpoints() {
+        Expense january = expense("10.00", "4.00", "6.00", "2024-01-10");
+        balanceCheckpointService.checkpoint(userId, JANUARY_END);
+
+        settlementService.createSettlement(roommateId, userId, new BigDecimal("2.00"), LocalDate.of(2024, 1, 25), userId);
+        assertNull(balanceCheckpointRepository.findLatestAsOf(userId));
+        assertSameBalances(balanceAggregationService.aggregateBalances(userId), balanceCheckpointService.getBalances(userId));
+
+        // Moving an expense out of the month still invalidates, because its old date was covered
+        assertTrue(balanceCheckpointService.checkpoint(userId, JANUARY_END));
+        ExpenseDTO moved = expenseDTO("10.00", "5.00", "5.00", "2024-03-01");
+        expenseService.updateExpense(january.getId(), moved);
+        assertNull(balanceCheckpointRepository.findLatestAsOf(userId));
+        assertSameBalances(balanceAggregationService.aggregateBalances(userId), balanceCheckpointService.getBalances(userId));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void checkpointWaitsForABackDatedWriteInFlight() throws Exception {
+        try {
+            expense("10.00", "4.00", "6.00", "2024-01-10");
+            CountDownLatch written = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                // The write has invalidated (and so locked the user) but not committed yet
+                Future<?> writer = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    settlementService.createSettlement(roommateId, userId, new BigDecimal("3.00"), LocalDate.of(2024, 1, 20), userId);
+                    written.countDown();
+                    await(release);
+                }));
+                assertTrue(written.await(10, TimeUnit.SECONDS));
+
+                Future<Boolean> checkpoint = executor.submit(() -> balanceCheckpointService.checkpoint(userId, JANUARY_END));
+                Thread.sleep(300);
+                assertFalse(checkpoint.isDone(), "checkpoint must wait for the write to commit");
+
+                release.countDown();
+                writer.get(10, TimeUnit.SECONDS);
+                assertTrue(checkpoint.get(10, TimeUnit.SECONDS));
+            } finally {
+                release.countDown();
+                executor.shutdownNow();
+            }
+
+            // The checkpoint was replayed after the settlement committed, so it already includes it
+            assertEquals(JANUARY_END, balanceCheckpointRepository.findLatestAsOf(userId));
+            assertSameBalances(balanceAggregationService.aggregateBalances(userId), balanceCheckpointService.getBalances(userId));
+        } finally {
+            CommittedHouseholds.delete(jdbcTemplate, entityManagerFactory, userId);
+        }
+    }
+
+    @Test
+    void ledgerModeNeitherBuildsNorInvalidates() {
+        assertTrue(balanceCheckpointService.isEnabled());
+        ReflectionTestUtils.setField(balanceCheckpointService, "ledgerEnabled", true);
+        try {
+            assertFalse(balanceCheckpointService.isEnabled());
+            assertEquals(0, balanceCheckpointJob.checkpointAll());
+        } finally {
+            ReflectionTestUtils.setField(balanceCheckpointService, "ledgerEnabled", false);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Expense expense(String amount, String userShare, String roommateShare, String date) {
+        return expenseService.createExpense(expenseDTO(amount, userShare, roommateShare, date), userId);
+    }
+
+    private ExpenseDTO expenseDTO(String amount, String userShare, String roommateShare, String date) {
+        ExpenseDTO dto = new ExpenseDTO();
+        dto.setDescription("groceries");
+        dto.setAmount(amount);
+        dto.setDate(date);
+        dto.setSplitType("custom");
+        dto.setPaidBy(List.of(userId));
+        dto.setSplitDetails(Map.of(userId, userShare, roommateId, roommateShare));
+        return dto;
+    }
+
+    private void assertSameBalances(Map<Long, BigDecimal> expected, Map<Long, BigDecimal> actual) {
+        Set<Long> counterparties = new HashSet<>(expected.keySet());
+        counterparties.addAll(actual.keySet());
+        for (Long counterpartyId : counterparties) {
+            BigDecimal want = expected.getOrDefault(counterpartyId, BigDecimal.ZERO);
+            BigDecimal got = actual.getOrDefault(counterpartyId, BigDecimal.ZERO);
+            assertEquals(0, want.compareTo(got), "counterparty " + counterpartyId + ": " + expected + " vs " + actual);
+        }
+    }
+}
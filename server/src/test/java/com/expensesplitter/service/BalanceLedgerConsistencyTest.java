@@ -0,0 +1,304 @@
+package com.expensesplitter.service;
+
+import com.expensesplitter.CommittedHouseholds;
+import com.expensesplitter.dto.ExpenseDTO;
+import com.expensesplitter.entity.Expense;
+import com.expensesplitter.entity.ExpenseParticipant;
+import com.expensesplitter.entity.Roommate;
+import com.expensesplitter.entity.Settlement;
+import com.expensesplitter.entity.User;
+import com.expensesplitter.repository.ExpenseParticipantRepository;
+import com.expensesplitter.repository.ExpenseRepository;
+import com.expensesplitter.repository.RoommateRepository;
+import com.expensesplitter.repository.SettlementRepository;
+import com.expensesplitter.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The pair_balances ledger against full recomputation after every kind of write. Not transactional:
+ * each service call commits on its own, as it does behind a request, so the concurrent test sees
+ * real row locks and the ledger's in-place updates are read back from the database.
+ */
+@SpringBootTest
+class BalanceLedgerConsistencyTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoommateRepository roommateRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseParticipantRepository expenseParticipantRepository;
+
+    @Autowired
+    private SettlementRepository settlementRepository;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Autowired
+    private RoommateService roommateService;
+
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+
+    @Autowired
+    private BalanceAggregationService balanceAggregationService;
+
+    @Autowired
+    private BalanceLedgerVerificationJob balanceLedgerVerificationJob;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long userId;
+    private Long aliceId;
+    private Long bobId;
+
+    @BeforeEach
+    void seed() {
+        User user = new User();
+        user.setUsername("ledger-" + System.nanoTime());
+        user.setPassword("x");
+        user = userRepository.save(user);
+        userId = user.getId();
+
+        roommate(user, "me");
+        aliceId = roommate(user, "alice");
+        bobId = roommate(user, "bob");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        CommittedHouseholds.delete(jdbcTemplate, entityManagerFactory, userId);
+    }
+
+    @Test
+    void ledgerMatchesRecomputationAfterEveryWrite() {
+        Expense rent = expenseService.createExpense(expenseDTO("equal", "30.00", "2024-01-01",
+                List.of(userId), Map.of(userId, "30.00", aliceId, "0", bobId, "0")), userId);
+        assertConsistent();
+
+        ExpenseDTO groceries = expenseDTO("custom", "7.00", "2024-01-02",
+                List.of(aliceId), Map.of(userId, "3.00", aliceId, "4.00"));
+        Expense groceriesExpense = expenseService.createExpense(groceries, userId);
+        assertConsistent();
+
+        expenseService.createExpense(expenseDTO("custom", "9.00", "2024-01-03",
+                List.of(userId, aliceId), Map.of(userId, "1.00", aliceId, "5.00", bobId, "3.00")), userId);
+        assertConsistent();
+
+        settlementService.createSettlement(userId, aliceId, new BigDecimal("2.50"), LocalDate.of(2024, 2, 1), userId);
+        assertConsistent();
+
+        Settlement fromBob = settlementService.createSettlement(bobId, userId, new BigDecimal("1.25"), LocalDate.of(2024, 2, 2), userId);
+        settlementService.updateSettlement(fromBob.getId(), bobId, userId, new BigDecimal("1.75"), LocalDate.of(2024, 2, 3), userId);
+        assertConsistent();
+
+        groceries.setAmount("8.00");
+        groceries.setSplitDetails(Map.of(userId, "2.00", aliceId, "6.00"));
+        expenseService.updateExpense(groceriesExpense.getId(), groceries);
+        assertConsistent();
+
+        expenseService.deleteExpense(rent.getId());
+        assertConsistent();
+
+        roommateService.deleteRoommate(bobId);
+        assertConsistent();
+    }
+
+    @Test
+    void concurrentWritesToOnePairAllLand() throws Exception {
+        int writers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            // Every writer touches the same brand-new pair, so the first ones race to create its row
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                int writer = i;
+                results.add(executor.submit((Callable<Void>) () -> {
+                    start.await();
+                    if (writer % 2 == 0) {
+                        expenseService.createExpense(expenseDTO("custom", "10.00", "2024-03-01",
+                                List.of(userId), Map.of(userId, "4.00", aliceId, "6.00")), userId);
+                    } else {
+                        settlementService.createSettlement(aliceId, userId, new BigDecimal("1.00"), LocalDate.of(2024, 3, 2), userId);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertConsistent();
+        // Alice owes 6.00 on each of the four expenses and has paid 1.00 back four times
+        assertEquals(0, new BigDecimal("-20.00").compareTo(balanceLedgerService.getBalances(userId).get(aliceId)));
+    }
+
+    @Test
+    void unseededUsersReadReplayedBalancesUntilTheJobSeedsThem() {
+        expenseService.createExpense(expenseDTO("custom", "10.00", "2024-04-01",
+                List.of(userId), Map.of(userId, "4.00", aliceId, "6.00")), userId);
+        // As if the user predated the ledger and a failed seeding run left its rows incomplete
+        jdbcTemplate.update("UPDATE users SET ledger_seeded = FALSE WHERE id = ?", userId);
+        jdbcTemplate.update("DELETE FROM pair_balances WHERE user_id = ?", userId);
+
+        assertFalse(balanceLedgerService.servesBalances(userId));
+        assertSameBalances(recomputeBalances(), expenseService.calculateBalances(userId));
+
+        assertTrue(balanceLedgerVerificationJob.seedUnseeded() >= 1);
+        assertTrue(balanceLedgerService.servesBalances(userId));
+        assertConsistent();
+        assertSameBalances(recomputeBalances(), expenseService.calculateBalances(userId));
+    }
+
+    @Test
+    void rebuildWaitsForAWriteInFlight() throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // The expense has pushed its deltas but not committed; a replay now would miss it
+            Future<?> writer = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                expenseService.createExpense(expenseDTO("custom", "10.00", "2024-04-02",
+                        List.of(userId), Map.of(userId, "4.00", aliceId, "6.00")), userId);
+                written.countDown();
+                await(release);
+            }));
+            assertTrue(written.await(10, TimeUnit.SECONDS));
+
+            Future<?> rebuild = executor.submit(() -> balanceLedgerService.rebuild(userId));
+            Thread.sleep(300);
+            assertFalse(rebuild.isDone(), "rebuild must wait for the write to commit");
+
+            release.countDown();
+            writer.get(10, TimeUnit.SECONDS);
+            rebuild.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        assertConsistent();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The ledger, the aggregate queries (user-001) and the original per-row loop must all agree
+    private void assertConsistent() {
+        Map<Long, BigDecimal> recomputed = recomputeBalances();
+        assertSameBalances(recomputed, balanceAggregationService.aggregateBalances(userId));
+        assertSameBalances(recomputed, balanceLedgerService.getBalances(userId));
+        assertEquals(List.of(), balanceLedgerService.verify(userId));
+    }
+
+    // The balance calculation as it was before aggregation and the ledger: walk every expense,
+    // participation and settlement of the user
+    private Map<Long, BigDecimal> recomputeBalances() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> {
+            User user = userRepository.findById(userId).orElseThrow();
+            Map<Long, BigDecimal> balances = new HashMap<>();
+
+            for (Expense expense : expenseRepository.findByUser(user)) {
+                for (ExpenseParticipant participant : expenseParticipantRepository.findByExpense(expense)) {
+                    balances.merge(participant.getParticipant().getId(), participant.getShareAmount(), BigDecimal::add);
+                }
+            }
+
+            for (Roommate roommate : roommateRepository.findByUser(user)) {
+                for (ExpenseParticipant participation : expenseParticipantRepository.findByParticipant(roommate)) {
+                    balances.merge(participation.getExpense().getUser().getId(), participation.getShareAmount().negate(), BigDecimal::add);
+                }
+            }
+
+            for (Settlement settlement : settlementRepository.findByPayerIdOrReceiverId(userId, userId)) {
+                if (settlement.getPayerId().equals(userId)) {
+                    balances.merge(settlement.getReceiverId(), settlement.getAmount().negate(), BigDecimal::add);
+                } else {
+                    balances.merge(settlement.getPayerId(), settlement.getAmount(), BigDecimal::add);
+                }
+            }
+            return balances;
+        });
+    }
+
+    private Long roommate(User user, String name) {
+        Roommate roommate = new Roommate();
+        roommate.setName(name);
+        roommate.setUser(user);
+        return roommateRepository.save(roommate).getId();
+    }
+
+    private ExpenseDTO expenseDTO(String splitType, String amount, String date, List<Long> paidBy, Map<Long, String> splitDetails) {
+        ExpenseDTO dto = new ExpenseDTO();
+        dto.setDescription("groceries");
+        dto.setAmount(amount);
+        dto.setDate(date);
+        dto.setSplitType(splitType);
+        dto.setPaidBy(paidBy);
+        dto.setSplitDetails(new HashMap<>(splitDetails));
+        return dto;
+    }
+
+    private void assertSameBalances(Map<Long, BigDecimal> expected, Map<Long, BigDecimal> actual) {
+        Set<Long> counterparties = new HashSet<>(expected.keySet());
+        counterparties.addAll(actual.keySet());
+        for (Long counterpartyId : counterparties) {
+            BigDecimal want = expected.getOrDefault(counterpartyId, BigDecimal.ZERO);
+            BigDecimal got = actual.getOrDefault(counterpartyId, BigDecimal.ZERO);
+            assertEquals(0, want.compareTo(got), "counterparty " + counterpartyId + ": " + expected + " vs " + actual);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.expensesplitter.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DebtSimplifierTest {
+
+    @Test
+    void exactPairsUpMatchingDebts() {
+        // 0 owes 10 to 1, 2 owes 7 to 3: greedy would cross the pairs, exact keeps them apart
+        long[] balances = {-1000, 1000, -700, 700};
+
+        List<DebtSimplifier.Transfer> transfers = DebtSimplifier.simplifyExact(balances);
+
+        assertEquals(2, transfers.size());
+        assertSettles(balances, transfers);
+    }
+
+    @Test
+    void exactNeverNeedsMoreTransfersThanGreedy() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            long[] balances = randomBalances(random, 2 + random.nextInt(9));
+
+            List<DebtSimplifier.Transfer> exact = DebtSimplifier.simplifyExact(balances);
+            List<DebtSimplifier.Transfer> greedy = DebtSimplifier.simplifyGreedy(balances);
+
+            assertSettles(balances, exact);
+            assertSettles(balances, greedy);
+            assertTrue(exact.size() <= greedy.size());
+        }
+    }
+
+    @Test
+    void greedyNeedsAtMostOneTransferFewerThanMembers() {
+        long[] balances = randomBalances(new Random(7), 1000);
+
+        List<DebtSimplifier.Transfer> transfers = DebtSimplifier.simplifyGreedy(balances);
+
+        assertSettles(balances, transfers);
+        assertTrue(transfers.size() <= balances.length - 1);
+    }
+
+    @Test
+    void throughHubInvolvesTheHubInEveryTransfer() {
+        long[] balances = randomBalances(new Random(11), 8);
+
+        DebtSimplifier.Plan plan = new DebtSimplifier(12).simplifyThrough(balances, 0);
+
+        assertSettles(balances, plan.getTransfers());
+        for (DebtSimplifier.Transfer transfer : plan.getTransfers()) {
+            assertTrue(transfer.getFrom() == 0 || transfer.getTo() == 0, transfer.toString());
+        }
+    }
+
+    @Test
+    void throughHubIsOptimalOnlyWhenNoDirectPlanIsShorter() {
+        DebtSimplifier simplifier = new DebtSimplifier(12);
+
+        // 1 and 2 both owe the hub: two transfers either way
+        assertTrue(simplifier.simplifyThrough(new long[]{1500, -1000, -500}, 0).isOptimal());
+
+        // 1 owes 2 and the hub is square: routing through the hub takes two transfers instead of one
+        DebtSimplifier.Plan routed = simplifier.simplifyThrough(new long[]{0, -1000, 1000}, 0);
+        assertEquals(2, routed.getTransfers().size());
+        assertFalse(routed.isOptimal());
+    }
+
+    @Test
+    void throughHubIsNotReportedOptimalBeyondTheExactCap() {
+        long[] balances = randomBalances(new Random(3), 6);
+
+        assertTrue(new DebtSimplifier(12).simplifyThrough(new long[]{700, -700}, 0).isOptimal());
+        assertFalse(new DebtSimplifier(2).simplifyThrough(balances, 0).isOptimal());
+    }
+
+    @Test
+    void rejectsUnbalancedInput() {
+        assertThrows(IllegalArgumentException.class, () -> DebtSimplifier.simplifyGreedy(new long[]{100, -50}));
+    }
+
+    private static long[] randomBalances(Random random, int members) {
+        long[] balances = new long[members];
+        long total = 0;
+        for (int i = 1; i < members; i++) {
+            balances[i] = random.nextInt(20_001) - 10_000;
+            total += balances[i];
+        }
+        balances[0] = -total;
+        return balances;
+    }
+
+    private static void assertSettles(long[] balances, List<DebtSimplifier.Transfer> transfers) {
+        long[] remaining = balances.clone();
+        for (DebtSimplifier.Transfer transfer : transfers) {
+            assertTrue(transfer.getAmount() > 0);
+            remaining[transfer.getFrom()] += transfer.getAmount();
+            remaining[transfer.getTo()] -= transfer.getAmount();
+        }
+        for (long balance : remaining) {
+            assertEquals(0, balance);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.expensesplitter.service;
+
+import com.expensesplitter.dto.RoommateDTO;
+import com.expensesplitter.dto.UserDTO;
+import com.expensesplitter.entity.User;
+import com.expensesplitter.repository.RoommateRepository;
+import com.expensesplitter.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: the second-level cache is only written when transactions commit
+@SpringBootTest
+class EntityCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoommateRepository roommateRepository;
+
+    @Autowired
+    private RoommateService roommateService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Long userId;
+
+    @BeforeEach
+    void seed() {
+        User user = new User();
+        user.setUsername("cache-" + System.nanoTime());
+        user.setPassword("x");
+        userId = userRepository.save(user).getId();
+        roommateService.addRoommate("me", userId);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        roommateRepository.deleteAll(roommateRepository.findByUserId(userId));
+        userRepository.deleteById(userId);
+    }
+
+    @Test
+    void roommateListIsServedFromCacheUntilRoommatesChange() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        roommateService.getRoommates(userId);
+        long hits = statistics.getQueryCacheHitCount();
+        assertEquals(1, roommateService.getRoommates(userId).size());
+        assertTrue(statistics.getQueryCacheHitCount() > hits);
+
+        RoommateDTO added = roommateService.addRoommate("flatmate", userId);
+        assertEquals(2, roommateService.getRoommates(userId).size());
+
+        roommateService.deleteRoommate(added.getId());
+        List<RoommateDTO> remaining = roommateService.getRoommates(userId);
+        assertEquals(1, remaining.size());
+        assertEquals("me", remaining.get(0).getName());
+        assertThrows(RuntimeException.class, () -> roommateService.getRoommate(added.getId(), userId));
+    }
+
+    @Test
+    void renamedUserIsNotServedStale() {
+        String oldName = userService.getUserById(userId).getUsername();
+        assertTrue(userRepository.findByUsername(oldName).isPresent());
+
+        UserDTO update = new UserDTO();
+        update.setUsername(oldName + "-renamed");
+        userService.updateUser(userId, update);
+
+        assertEquals(oldName + "-renamed", userService.getUserById(userId).getUsername());
+        assertTrue(userRepository.findByUsername(oldName).isEmpty());
+        assertTrue(userRepository.findByUsername(oldName + "-renamed").isPresent());
+    }
+
+    @Test
+    void cacheStatisticsArePublishedAsMetrics() {
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests").tags("region", "users", "result", "hit").meter());
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests").tags("region", "roommates", "result", "miss").meter());
+        assertNotNull(meterRegistry.find("hibernate.cache.query.requests").tag("result", "hit").meter());
+    }
+}
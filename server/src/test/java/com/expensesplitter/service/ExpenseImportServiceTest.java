@@ -0,0 +1,174 @@
+package com.expensesplitter.service;
+
+import com.expensesplitter.CommittedHouseholds;
+import com.expensesplitter.dto.ExpenseDTO;
+import com.expensesplitter.dto.ExpenseImportReport;
+import com.expensesplitter.entity.Roommate;
+import com.expensesplitter.entity.User;
+import com.expensesplitter.repository.RoommateRepository;
+import com.expensesplitter.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional: every chunk commits or rolls back on its own, as it does behind the endpoint
+@SpringBootTest
+class ExpenseImportServiceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoommateRepository roommateRepository;
+
+    @Autowired
+    private ExpenseImportService expenseImportService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long userId;
+    private Long roommateId;
+
+    @BeforeEach
+    void seed() {
+        User user = new User();
+        user.setUsername("import-" + System.nanoTime());
+        user.setPassword("x");
+        user = userRepository.save(user);
+        userId = user.getId();
+
+        Roommate self = new Roommate();
+        self.setName("me");
+        self.setUser(user);
+        roommateRepository.save(self);
+        Roommate roommate = new Roommate();
+        roommate.setName("flatmate");
+        roommate.setUser(user);
+        roommateId = roommateRepository.save(roommate).getId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        CommittedHouseholds.delete(jdbcTemplate, entityManagerFactory, userId);
+    }
+
+    @Test
+    void importsCsvRows() throws Exception {
+        String csv = "Date,Description,Amount,SplitType,PaidBy,SplitDetails\n"
+                + "2024-01-01,\"Rent, \"\"January\"\"\",100.00,equal," + userId + "," + userId + ":100.00;" + roommateId + ":0\n"
+                + "\n"
+                + "2024-01-02,Groceries,10.00,custom," + userId + "," + userId + ":4.00;" + roommateId + ":6.00\n";
+
+        ExpenseImportReport report = importRows(csv, ExpenseImportService.Format.CSV, 100);
+
+        assertEquals(2, report.getImported());
+        assertEquals(0, report.getFailed());
+        List<ExpenseDTO> stored = storedExpenses();
+        assertEquals(List.of("Groceries", "Rent, \"January\""), stored.stream().map(ExpenseDTO::getDescription).toList());
+        assertEquals("-6.00", stored.get(0).getSplitDetails().get(roommateId));
+    }
+
+    @Test
+    void importsNdjsonRows() throws Exception {
+        String ndjson = "{\"description\":\"Power\",\"amount\":\"30.00\",\"date\":\"2024-02-01\",\"splitType\":\"equal\","
+                + "\"paidBy\":[" + userId + "],\"splitDetails\":{\"" + userId + "\":\"30.00\",\"" + roommateId + "\":\"0\"}}\n"
+                + "{\"description\":\"Water\",\"amount\":\"8.00\",\"date\":\"2024-02-02\",\"splitType\":\"custom\","
+                + "\"paidBy\":[" + userId + "],\"splitDetails\":{\"" + userId + "\":\"3.00\",\"" + roommateId + "\":\"5.00\"}}\n";
+
+        ExpenseImportReport report = importRows(ndjson, ExpenseImportService.Format.NDJSON, 100);
+
+        assertEquals(2, report.getImported());
+        assertEquals(List.of("Water", "Power"), storedExpenses().stream().map(ExpenseDTO::getDescription).toList());
+    }
+
+    @Test
+    void reportsInvalidRowsByLineAndKeepsTheRest() throws Exception {
+        String csv = "description,amount,date,splitType,paidBy,splitDetails\n"
+                + "Good,10.00,2024-03-01,custom," + userId + "," + userId + ":4.00;" + roommateId + ":6.00\n"
+                + "Bad amount,ten,2024-03-02,custom," + userId + "," + userId + ":4.00;" + roommateId + ":6.00\n"
+                + "Short row,10.00\n"
+                + "Wrong total,10.00,2024-03-03,custom," + userId + "," + userId + ":4.00;" + roommateId + ":5.00\n"
+                + "{not json either}\n";
+
+        ExpenseImportReport report = importRows(csv, ExpenseImportService.Format.CSV, 100);
+
+        assertEquals(1, report.getImported());
+        assertEquals(4, report.getFailed());
+        assertEquals(List.of(3L, 4L, 5L, 6L), report.getErrors().stream().map(ExpenseImportReport.RowError::getLine).toList());
+        assertEquals("Invalid amount or date", report.getErrors().get(0).getMessage());
+        assertTrue(report.getErrors().get(2).getMessage().startsWith("The sum of paid amounts"));
+    }
+
+    @Test
+    void quotedFieldsMaySpanLines() throws Exception {
+        String csv = "description,amount,date,splitType,paidBy,splitDetails\n"
+                + "\"Party supplies:\n\ncups, \"\"plates\"\"\",10.00,2024-05-01,custom," + userId + "," + userId + ":4.00;" + roommateId + ":6.00\n"
+                + "Bad amount,ten,2024-05-02,custom," + userId + "," + userId + ":4.00;" + roommateId + ":6.00\n";
+
+        ExpenseImportReport report = importRows(csv, ExpenseImportService.Format.CSV, 100);
+
+        assertEquals(1, report.getImported());
+        // The multi-line record covers lines 2-4, so the next row is reported at its own line
+        assertEquals(List.of(5L), report.getErrors().stream().map(ExpenseImportReport.RowError::getLine).toList());
+        assertEquals(List.of("Party supplies:\n\ncups, \"plates\""), storedExpenses().stream().map(ExpenseDTO::getDescription).toList());
+    }
+
+    @Test
+    void unterminatedQuoteFailsOnlyItsRecord() throws Exception {
+        String csv = "description,amount,date,splitType,paidBy,splitDetails\n"
+                + "Good,10.00,2024-06-01,custom," + userId + "," + userId + ":4.00;" + roommateId + ":6.00\n"
+                + "\"Never closed,10.00,2024-06-02,custom," + userId + "," + userId + ":4.00;" + roommateId + ":6.00\n";
+
+        ExpenseImportReport report = importRows(csv, ExpenseImportService.Format.CSV, 100);
+
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(3L, report.getErrors().get(0).getLine());
+        assertEquals("Unterminated quoted field", report.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void aChunkThatFailsToWriteRollsBackOnItsOwn() throws Exception {
+        // Rows pass validation, but a description longer than the column only fails on insert
+        StringBuilder csv = new StringBuilder("description,amount,date,splitType,paidBy,splitDetails\n");
+        for (int i = 1; i <= 5; i++) {
+            String description = i == 3 ? "x".repeat(300) : "Row " + i;
+            csv.append(description).append(",10.00,2024-04-0").append(i).append(",custom,")
+                    .append(userId).append(',').append(userId).append(":4.00;").append(roommateId).append(":6.00\n");
+        }
+
+        // Chunks of two: rows 1-2 and 5 commit, rows 3-4 (lines 4 and 5) roll back together
+        ExpenseImportReport report = importRows(csv.toString(), ExpenseImportService.Format.CSV, 2);
+
+        assertEquals(3, report.getImported());
+        assertEquals(2, report.getFailed());
+        assertEquals(List.of(4L, 5L), report.getErrors().stream().map(ExpenseImportReport.RowError::getLine).toList());
+        assertTrue(report.getErrors().get(0).getMessage().startsWith("Chunk rolled back"));
+        assertEquals(List.of("Row 5", "Row 2", "Row 1"), storedExpenses().stream().map(ExpenseDTO::getDescription).toList());
+    }
+
+    private ExpenseImportReport importRows(String body, ExpenseImportService.Format format, int chunkSize) throws Exception {
+        return expenseImportService.importExpenses(new StringReader(body), format, userId, chunkSize);
+    }
+
+    // Newest first
+    private List<ExpenseDTO> storedExpenses() {
+        return expenseService.getUserExpenses(userId, null, 100, null, null, null, null).getExpenses();
+    }
+}
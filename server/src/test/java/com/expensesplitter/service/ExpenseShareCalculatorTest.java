@@ -0,0 +1,66 @@
+package com.expensesplitter.service;
+
+import com.expensesplitter.dto.ExpenseDTO;
+import com.expensesplitter.entity.Expense;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpenseShareCalculatorTest {
+
+    private static final long USER = 1L;
+
+    private final ExpenseShareCalculator calculator = new ExpenseShareCalculator(new SplitCalculator());
+
+    @Test
+    void userPayingAnEqualSplitIsOwedEveryOtherShare() {
+        ExpenseDTO expense = expense(List.of(USER), Map.of(USER, "10.00", 2L, "0", 3L, "0"));
+
+        Map<Long, BigDecimal> shares = calculator.computeShares(expense, USER, new BigDecimal("10.00"), Expense.SplitType.EQUAL);
+
+        // 10.00 / 3: the remainder cent goes to the lowest id, which is the user
+        assertEquals(Map.of(2L, new BigDecimal("-3.33"), 3L, new BigDecimal("-3.33")), shares);
+    }
+
+    @Test
+    void roommatePayingAnEqualSplitIsOwedTheUsersShare() {
+        ExpenseDTO expense = expense(List.of(2L), Map.of(USER, "0", 2L, "9.00", 3L, "0"));
+
+        Map<Long, BigDecimal> shares = calculator.computeShares(expense, USER, new BigDecimal("9.00"), Expense.SplitType.EQUAL);
+
+        assertEquals(Map.of(2L, new BigDecimal("3.00")), shares);
+    }
+
+    @Test
+    void multiplePayersSettleOnlyWhatTheUserUnderOrOverpaid() {
+        // Each should pay 4.00; the user paid 8.00, roommate 2 paid 4.00, roommate 3 paid nothing
+        ExpenseDTO expense = expense(List.of(USER, 2L), Map.of(USER, "8.00", 2L, "4.00", 3L, "0"));
+
+        Map<Long, BigDecimal> shares = calculator.computeShares(expense, USER, new BigDecimal("12.00"), Expense.SplitType.EQUAL);
+
+        assertEquals(Map.of(3L, new BigDecimal("-4.00")), shares);
+    }
+
+    @Test
+    void customSplitUsesTheGivenAmounts() {
+        ExpenseDTO paidByUser = expense(List.of(USER), Map.of(USER, "4.00", 2L, "6.00"));
+        assertEquals(Map.of(2L, new BigDecimal("-6.00")),
+                calculator.computeShares(paidByUser, USER, new BigDecimal("10.00"), Expense.SplitType.CUSTOM));
+
+        ExpenseDTO paidByRoommate = expense(List.of(2L), Map.of(USER, "3.25", 2L, "4.75"));
+        assertEquals(Map.of(2L, new BigDecimal("3.25")),
+                calculator.computeShares(paidByRoommate, USER, new BigDecimal("8.00"), Expense.SplitType.CUSTOM));
+    }
+
+    private static ExpenseDTO expense(List<Long> paidBy, Map<Long, String> splitDetails) {
+        ExpenseDTO dto = new ExpenseDTO();
+        dto.setDescription("groceries");
+        dto.setPaidBy(paidBy);
+        dto.setSplitDetails(splitDetails);
+        return dto;
+    }
+}
@@ -0,0 +1,148 @@
+package com.expensesplitter.service;
+
+import com.expensesplitter.CommittedHouseholds;
+import com.expensesplitter.dto.ExpenseDTO;
+import com.expensesplitter.dto.RoommateDeletionDTO;
+import com.expensesplitter.entity.Roommate;
+import com.expensesplitter.entity.User;
+import com.expensesplitter.repository.RoommateRepository;
+import com.expensesplitter.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The asynchronous roommate delete end to end: soft delete, then the purge in batches smaller than
+ * the roommate's history. Not transactional, since every purge batch commits on its own; the
+ * scheduled run is pushed out so only the test drives the purge.
+ */
+@SpringBootTest(properties = {
+        "roommates.delete.async=true",
+        "roommates.purge.batch-size=2",
+        "roommates.purge.interval-ms=3600000"
+})
+class RoommatePurgeServiceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoommateRepository roommateRepository;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private RoommateService roommateService;
+
+    @Autowired
+    private RoommatePurgeService roommatePurgeService;
+
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long userId;
+    private Long aliceId;
+    private Long bobId;
+
+    @BeforeEach
+    void seed() {
+        User user = new User();
+        user.setUsername("purge-" + System.nanoTime());
+        user.setPassword("x");
+        user = userRepository.save(user);
+        userId = user.getId();
+
+        roommate(user, "me");
+        aliceId = roommate(user, "alice");
+        bobId = roommate(user, "bob");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        // The purged roommate is no longer among the user's, so its ledger rows are removed by id
+        jdbcTemplate.update("DELETE FROM pair_balances WHERE user_id = ? OR counterparty_id = ?", bobId, bobId);
+        jdbcTemplate.update("DELETE FROM balance_checkpoints WHERE user_id = ? OR counterparty_id = ?", bobId, bobId);
+        CommittedHouseholds.delete(jdbcTemplate, entityManagerFactory, userId);
+    }
+
+    @Test
+    void purgeRemovesSharesAndOrphanedExpensesInBatches() {
+        List<Long> bobOnly = new ArrayList<>();
+        List<Long> shared = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            bobOnly.add(expenseService.createExpense(expenseDTO(Map.of(userId, "2.00", bobId, "3.00")), userId).getId());
+        }
+        for (int i = 0; i < 2; i++) {
+            shared.add(expenseService.createExpense(expenseDTO(Map.of(userId, "1.00", aliceId, "2.00", bobId, "2.00")), userId).getId());
+        }
+        // The user paid, so only the roommates' shares are rows: Bob is alone on the first three
+        long shares = participationCount(bobId);
+        assertEquals(5, shares);
+
+        RoommateDeletionDTO pending = roommateService.deleteRoommate(bobId);
+        assertEquals(RoommateDeletionDTO.PENDING, pending.getStatus());
+        assertEquals(shares, pending.getParticipationsTotal());
+        assertTrue(roommateRepository.findById(bobId).isEmpty(), "soft-deleted roommates are left out of lookups");
+
+        roommatePurgeService.purge(bobId);
+
+        RoommateDeletionDTO done = roommatePurgeService.getStatus(bobId);
+        assertTrue(done.isCompleted());
+        assertEquals(shares, done.getParticipationsDeleted());
+        assertEquals(bobOnly.size(), done.getExpensesDeleted());
+
+        assertEquals(0, participationCount(bobId));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM roommates WHERE id = ?", Long.class, bobId));
+        for (Long expenseId : bobOnly) {
+            assertEquals(0, expenseCount(expenseId), "expense only bob took part in " + expenseId);
+        }
+        for (Long expenseId : shared) {
+            assertEquals(1, expenseCount(expenseId), "expense shared with alice " + expenseId);
+        }
+        assertEquals(List.of(), balanceLedgerService.verify(userId));
+    }
+
+    private long participationCount(Long roommateId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expense_participants WHERE participant_id = ?", Long.class, roommateId);
+    }
+
+    private long expenseCount(Long expenseId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses WHERE id = ?", Long.class, expenseId);
+    }
+
+    private ExpenseDTO expenseDTO(Map<Long, String> splitDetails) {
+        ExpenseDTO dto = new ExpenseDTO();
+        dto.setDescription("groceries");
+        dto.setAmount("5.00");
+        dto.setDate("2024-01-01");
+        dto.setSplitType("custom");
+        dto.setPaidBy(List.of(userId));
+        dto.setSplitDetails(new HashMap<>(splitDetails));
+        return dto;
+    }
+
+    private Long roommate(User user, String name) {
+        Roommate roommate = new Roommate();
+        roommate.setName(name);
+        roommate.setUser(user);
+        return roommateRepository.save(roommate).getId();
+    }
+}
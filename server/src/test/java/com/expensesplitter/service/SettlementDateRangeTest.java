@@ -0,0 +1,98 @@
+package com.expensesplitter.service;
+
+import com.expensesplitter.dto.SettlementPeriodTotalDTO;
+import com.expensesplitter.entity.Settlement;
+import com.expensesplitter.repository.SettlementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@Transactional
+class SettlementDateRangeTest {
+
+    private static final long USER = 8001L;
+    private static final long ROOMMATE = 8002L;
+    private static final long OTHER = 8003L;
+
+    @Autowired
+    private SettlementRepository settlementRepository;
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @BeforeEach
+    void seed() {
+        save(USER, ROOMMATE, "10.00", "2024-01-05");
+        save(ROOMMATE, USER, "4.00", "2024-01-05");
+        save(USER, ROOMMATE, "2.50", "2024-01-20");
+        save(OTHER, USER, "7.00", "2024-02-01");
+        // Outside the range, on both sides of the OR
+        save(USER, ROOMMATE, "99.00", "2023-12-31");
+        save(ROOMMATE, USER, "99.00", "2024-03-01");
+        // Not involving the user
+        save(OTHER, ROOMMATE, "99.00", "2024-01-10");
+    }
+
+    @Test
+    void dateRangeAppliesToBothPayerAndReceiver() {
+        List<Settlement> settlements = settlementRepository.findByUserAndDateBetween(USER,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 29));
+
+        assertEquals(4, settlements.size());
+        assertEquals(new BigDecimal("23.50"), settlements.stream().map(Settlement::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add));
+    }
+
+    @Test
+    void monthlyTotalsAreGroupedByCounterparty() {
+        List<SettlementPeriodTotalDTO> totals = settlementService.getSettlementTotalsByPeriod(USER,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 29), "month");
+
+        assertEquals(2, totals.size());
+        SettlementPeriodTotalDTO january = totals.get(0);
+        assertEquals(LocalDate.of(2024, 1, 1), january.getPeriodStart());
+        assertEquals(ROOMMATE, january.getCounterpartyId());
+        assertEquals(0, new BigDecimal("12.50").compareTo(january.getPaid()));
+        assertEquals(0, new BigDecimal("4.00").compareTo(january.getReceived()));
+        assertEquals(0, new BigDecimal("-8.50").compareTo(january.getNet()));
+        SettlementPeriodTotalDTO february = totals.get(1);
+        assertEquals(LocalDate.of(2024, 2, 1), february.getPeriodStart());
+        assertEquals(OTHER, february.getCounterpartyId());
+        assertEquals(0, new BigDecimal("7.00").compareTo(february.getReceived()));
+    }
+
+    @Test
+    void dailyTotalsSplitTheMonth() {
+        List<SettlementPeriodTotalDTO> totals = settlementService.getSettlementTotalsByPeriod(USER,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), "day");
+
+        assertEquals(2, totals.size());
+        assertEquals(LocalDate.of(2024, 1, 5), totals.get(0).getPeriodStart());
+        assertEquals(0, new BigDecimal("-6.00").compareTo(totals.get(0).getNet()));
+        assertEquals(LocalDate.of(2024, 1, 20), totals.get(1).getPeriodStart());
+    }
+
+    @Test
+    void rejectsUnknownBucket() {
+        assertThrows(IllegalArgumentException.class, () -> settlementService.getSettlementTotalsByPeriod(USER,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), "week"));
+    }
+
+    private void save(long payerId, long receiverId, String amount, String date) {
+        Settlement settlement = new Settlement();
+        settlement.setPayerId(payerId);
+        settlement.setReceiverId(receiverId);
+        settlement.setAmount(new BigDecimal(amount));
+        settlement.setDate(LocalDate.parse(date));
+        settlementRepository.save(settlement);
+    }
+}
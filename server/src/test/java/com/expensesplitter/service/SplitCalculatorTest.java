@@ -0,0 +1,64 @@
+package com.expensesplitter.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SplitCalculatorTest {
+
+    private final SplitCalculator splitCalculator = new SplitCalculator();
+
+    @Test
+    void equalGivesRemainderCentsToTheFirstParticipants() {
+        long[] shares = new long[3];
+
+        splitCalculator.equal(1000, shares);
+
+        assertArrayEquals(new long[]{334, 333, 333}, shares);
+    }
+
+    @Test
+    void percentageUsesLargestRemainders() {
+        long[] shares = new long[3];
+
+        // 33.33% / 33.33% / 33.34% of 1.00
+        splitCalculator.percentage(100, new long[]{3333, 3333, 3334}, shares);
+
+        assertArrayEquals(new long[]{33, 33, 34}, shares);
+    }
+
+    @Test
+    void weightedSharesAlwaysAddUpToTheTotal() {
+        long[] weights = {2, 1, 1, 3, 5, 7};
+        long[] shares = new long[weights.length];
+        for (long total = -500; total <= 5000; total += 7) {
+            splitCalculator.shares(total, weights, shares);
+
+            assertEquals(total, Arrays.stream(shares).sum());
+            for (int i = 0; i < weights.length; i++) {
+                double exact = (double) total * weights[i] / 19;
+                assertTrue(Math.abs(shares[i] - exact) < 1, "share " + i + " of " + total);
+            }
+        }
+    }
+
+    @Test
+    void customRejectsAmountsThatDoNotAddUp() {
+        assertThrows(IllegalArgumentException.class,
+                () -> splitCalculator.custom(1000, new long[]{500, 400}, new long[2]));
+    }
+
+    @Test
+    void parsesCentsWithoutLosingPrecision() {
+        assertEquals(1234, SplitCalculator.parseCents("12.34"));
+        assertEquals(-350, SplitCalculator.parseCents("-3.5"));
+        assertEquals(1200, SplitCalculator.parseCents("12"));
+        assertEquals(7, SplitCalculator.parseCents("0.07"));
+        assertEquals(100, SplitCalculator.parseCents("1E+0"));
+        assertEquals(new BigDecimal("10.05"), SplitCalculator.fromCents(1005));
+        assertThrows(IllegalArgumentException.class, () -> SplitCalculator.parseCents("1.005"));
+    }
+}